@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Time-to-first-request benchmark.
+#
+#   mvn -Pprod package
+#   scripts/startup-benchmark.sh [runs] [url]
+#
+# Starts the app RUNS times (default 5) per mode and polls URL (default http://localhost:8080/doctor)
+# until it answers below 500; prints milliseconds from launch to that response and the median.
+#   jar   java -jar target/back-end-*.jar, default profile (ddl update, eager beans)
+#   prod  target/app jar + CDS archive + AOT context, prod profile
+# MODES="prod" runs one mode only; JAVA_OPTS / APP_ARGS are passed to every run.
+# MySQL and Mongo must be reachable as configured. Inside the app the same number is exported as
+# application.first.request.time (/actuator/metrics).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+URL=${2:-http://localhost:8080/doctor}
+MODES=${MODES:-"jar prod"}
+JAVA=${JAVA:-java}
+JAVA_OPTS=${JAVA_OPTS:-}
+APP_ARGS=${APP_ARGS:-}
+TIMEOUT_S=${TIMEOUT_S:-180}
+
+JAR=$(ls target/back-end-*.jar 2>/dev/null | head -n1 || true)
+if [ -z "$JAR" ]; then
+  echo "no jar in target/, run mvn -Pprod package first" >&2
+  exit 1
+fi
+
+now_ms() { date +%s%3N; }
+
+# prints elapsed ms, or "fail" when the app exited or timed out before answering
+run_once() {
+  local mode=$1 log=target/startup-benchmark-$1.log
+  local cmd
+  case $mode in
+    jar)  cmd=("$JAVA" $JAVA_OPTS -jar "$JAR") ;;
+    prod) cmd=("$JAVA" $JAVA_OPTS -XX:SharedArchiveFile=target/app/application.jsa
+                -Dspring.aot.enabled=true -Dspring.profiles.active=prod -jar "target/app/${JAR##*/}") ;;
+    *)    echo "unknown mode: $mode" >&2; exit 1 ;;
+  esac
+
+  local start code=000
+  start=$(now_ms)
+  "${cmd[@]}" $APP_ARGS >"$log" 2>&1 &
+  local pid=$!
+  while kill -0 "$pid" 2>/dev/null && [ $(( $(now_ms) - start )) -lt $(( TIMEOUT_S * 1000 )) ]; do
+    code=$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)
+    if [ "$code" != 000 ] && [ "$code" -lt 500 ]; then break; fi
+    sleep 0.05
+  done
+  local elapsed=$(( $(now_ms) - start ))
+
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  if [ "$code" = 000 ] || [ "$code" -ge 500 ]; then echo fail; else echo "$elapsed"; fi
+}
+
+for mode in $MODES; do
+  if [ "$mode" = prod ] && [ ! -f target/app/application.jsa ]; then
+    echo "prod: target/app/application.jsa missing, build with mvn -Pprod package" >&2
+    continue
+  fi
+  results=()
+  for _ in $(seq "$RUNS"); do
+    results+=("$(run_once "$mode")")
+  done
+  ok=$(printf '%s\n' "${results[@]}" | grep -v fail | sort -n || true)
+  count=$(printf '%s' "$ok" | grep -c . || true)
+  median=-
+  if [ "$count" -gt 0 ]; then median=$(printf '%s\n' "$ok" | sed -n "$(( (count + 1) / 2 ))p"); fi
+  printf '%-5s runs: %s  median: %s ms  (log: target/startup-benchmark-%s.log)\n' \
+    "$mode" "${results[*]}" "$median" "$mode"
+done
@@ -0,0 +1,216 @@
+// build-assets.mjs
+// Build-time asset pipeline for the pages under static/ and templates/, bundled with esbuild.
+//
+//   npm run build-assets        (node src/main/frontend/build-assets.mjs target/classes)
+//
+// Runs on the copied resources (Maven profile "assets", process-classes phase), never on src/:
+//   - per page, the stylesheets, the deferred classic scripts and the module scripts are each
+//     bundled and minified by esbuild into one file (classic scripts are concatenated first, so
+//     they keep sharing the global scope);
+//   - bundles are named by content hash (static/dist/<name>.<hash>.<ext>) and written with .gz/.br variants;
+//   - the page's <link>/<script> tags are rewritten to the bundles.
+// Served with immutable Cache-Control from /dist/** (WebConfig). esbuild errors (syntax, missing
+// imports, duplicate declarations across classic scripts) fail the build.
+
+import { createHash } from "node:crypto";
+import { existsSync, mkdirSync, readFileSync, readdirSync, rmSync, statSync, writeFileSync } from "node:fs";
+import { join, posix, relative, resolve } from "node:path";
+import { brotliCompressSync, constants, gzipSync } from "node:zlib";
+import * as esbuild from "esbuild";
+
+const OUT = resolve(process.argv[2] ?? "target/classes");
+const STATIC = join(OUT, "static");
+const TEMPLATES = join(OUT, "templates");
+const DIST = join(STATIC, "dist");
+const TARGET = ["es2020", "chrome87", "firefox78", "safari14"];
+
+const written = new Map();   // bundle file -> bytes, shared bundles are written once
+const manifest = {};         // page -> bundle urls
+const warnings = [];
+
+/* ==== 1) pages ==== */
+
+function listHtml(dir) {
+  if (!existsSync(dir)) return [];
+  return readdirSync(dir).flatMap(name => {
+    const path = join(dir, name);
+    if (statSync(path).isDirectory()) return name === "dist" ? [] : listHtml(path);
+    return name.endsWith(".html") ? [path] : [];
+  });
+}
+
+function parseAttrs(tag) {
+  const attrs = {};
+  for (const m of tag.matchAll(/([\w:-]+)(?:\s*=\s*"([^"]*)")?/g)) {
+    if (m[1] === "link" || m[1] === "script") continue;
+    attrs[m[1].toLowerCase()] = m[2] ?? "";
+  }
+  return attrs;
+}
+
+// URL path of a referenced asset ("/js/render.js"), or null for external/unknown refs
+function resolveUrl(raw, pageUrlDir) {
+  if (!raw) return null;
+  const th = raw.match(/^@\{([^}]+)\}$/);
+  const ref = th ? th[1] : raw;
+  if (/^[a-z]+:|^\/\//i.test(ref) || ref.includes("${")) return null;
+  return ref.startsWith("/") ? posix.normalize(ref) : posix.join(pageUrlDir, ref);
+}
+
+function fileFor(url) {
+  return join(STATIC, ...url.split("/").filter(Boolean));
+}
+
+async function buildPage(htmlPath) {
+  const isTemplate = htmlPath.startsWith(TEMPLATES);
+  const pageUrlDir = isTemplate ? "/" : "/" + posix.dirname(relative(STATIC, htmlPath).split("\\").join("/"));
+  let html = readFileSync(htmlPath, "utf8");
+
+  const tags = [];
+  for (const m of html.matchAll(/<link\b[^>]*>|<script\b[^>]*>\s*<\/script>/gi)) {
+    const attrs = parseAttrs(m[0]);
+    const isLink = /^<link/i.test(m[0]);
+    if (isLink && attrs.rel !== "stylesheet") continue;
+    const srcAttr = isLink ? (attrs["th:href"] !== undefined ? "th:href" : "href")
+                           : (attrs["th:src"] !== undefined ? "th:src" : "src");
+    const url = resolveUrl(attrs[srcAttr], pageUrlDir);
+    if (!url) continue;
+    const kind = isLink ? "css" : attrs.type === "module" ? "module" : "classic";
+    const file = fileFor(url);
+    if (!existsSync(file)) {
+      warnings.push(`${htmlPath}: ${url} does not exist, tag left as is`);
+      continue;
+    }
+    if (kind === "classic") {
+      const source = readFileSync(file, "utf8");
+      if (attrs.defer === undefined || attrs.async !== undefined) {
+        warnings.push(`${htmlPath}: ${url} is not a deferred classic script, tag left as is`);
+        continue;
+      }
+      if (/^\s*(import|export)\b/m.test(source)) {
+        warnings.push(`${htmlPath}: ${url} is an ES module loaded as a classic script, tag left as is`);
+        continue;
+      }
+    }
+    tags.push({ tag: m[0], index: m.index, kind, url, file, srcAttr, thymeleaf: srcAttr.startsWith("th:") });
+  }
+
+  const groups = { css: [], classic: [], module: [] };
+  tags.forEach(t => groups[t.kind].push(t));
+  const lastClassic = Math.max(-1, ...groups.classic.map(t => t.index));
+  if (groups.module.some(t => t.index < lastClassic)) {
+    warnings.push(`${htmlPath}: module script before a classic script, page left unbundled`);
+    return;
+  }
+
+  const bundles = [];
+  if (groups.css.length) bundles.push(["css", groups.css, emit(groups.css, "css", await bundleCss(groups.css))]);
+  if (groups.classic.length) bundles.push(["classic", groups.classic, emit(groups.classic, "js", await bundleClassic(groups.classic))]);
+  if (groups.module.length) bundles.push(["module", groups.module, emit(groups.module, "js", await bundleModules(groups.module))]);
+  if (!bundles.length) return;
+
+  for (const [kind, group, url] of bundles) {
+    const first = group[0];
+    const ref = first.thymeleaf ? `${first.srcAttr}="@{${url}}"` : `${first.srcAttr}="${url}"`;
+    const replacement = kind === "css" ? `<link rel="stylesheet" ${ref}>`
+                      : kind === "module" ? `<script type="module" ${ref}></script>`
+                      : `<script ${ref} defer></script>`;
+    html = html.replace(first.tag, replacement);
+    for (const t of group.slice(1)) {
+      html = html.replace(new RegExp(`[ \\t]*${escapeRegExp(t.tag)}[ \\t]*\\r?\\n?`), "");
+    }
+  }
+  writeFileSync(htmlPath, html);
+  manifest[relative(OUT, htmlPath).split("\\").join("/")] = bundles.map(b => b[2]);
+}
+
+/* ==== 2) bundlers (esbuild) ==== */
+
+// "/js/x.js" and "/css/x.css" are URL paths under static/; absolute url() references in CSS stay as they are
+const staticRoot = {
+  name: "static-root",
+  setup(build) {
+    build.onResolve({ filter: /^\// }, args =>
+      args.kind === "url-token" ? { path: args.path, external: true } : { path: join(STATIC, args.path) });
+    // relative url() references are rebased onto the stylesheet's URL, the files themselves are served as is
+    build.onResolve({ filter: /^[^/]/ }, args => {
+      if (args.kind !== "url-token") return undefined;
+      if (/^(data:|[a-z]+:|#)/i.test(args.path)) return { path: args.path, external: true };
+      const url = posix.join("/", posix.dirname(relative(STATIC, args.importer).split("\\").join("/")), args.path);
+      return { path: url, external: true };
+    });
+  }
+};
+
+async function bundle(contents, loader, options = {}) {
+  const result = await esbuild.build({
+    stdin: { contents, loader, resolveDir: STATIC, sourcefile: "page" },
+    bundle: true,
+    minify: true,
+    write: false,
+    target: TARGET,
+    plugins: [staticRoot],
+    logLevel: "warning",
+    ...options
+  });
+  return result.outputFiles[0].text;
+}
+
+// stylesheets in page order, as @imports of one entry (esbuild inlines them)
+function bundleCss(group) {
+  return bundle(group.map(t => `@import ${JSON.stringify(t.url)};`).join("\n"), "css");
+}
+
+// classic scripts share one global scope: concatenated, then minified without renaming top-level names
+async function bundleClassic(group) {
+  const source = group.map(t => `// ${t.url}\n${readFileSync(t.file, "utf8")}\n;`).join("\n");
+  const result = await esbuild.transform(source, {
+    loader: "js",
+    minify: true,
+    target: TARGET,
+    sourcefile: group.map(t => t.url).join(" + ")
+  });
+  return result.code;
+}
+
+// module scripts in page order, as imports of one entry; shared and dynamic imports are resolved by esbuild
+function bundleModules(group) {
+  return bundle(group.map(t => `import ${JSON.stringify(t.url)};`).join("\n"), "js", { format: "esm" });
+}
+
+/* ==== 3) output ==== */
+
+function emit(group, ext, content) {
+  const base = posix.basename(group[0].url).replace(/\.(js|css)$/, "");
+  const hash = createHash("sha256").update(content).digest("hex").slice(0, 10);
+  const name = `${base}.${hash}.${ext}`;
+  if (!written.has(name)) {
+    const bytes = Buffer.from(content, "utf8");
+    const file = join(DIST, name);
+    writeFileSync(file, bytes);
+    writeFileSync(file + ".gz", gzipSync(bytes, { level: 9 }));
+    writeFileSync(file + ".br", brotliCompressSync(bytes, {
+      params: { [constants.BROTLI_PARAM_QUALITY]: 11, [constants.BROTLI_PARAM_MODE]: constants.BROTLI_MODE_TEXT }
+    }));
+    written.set(name, bytes.length);
+  }
+  return `/dist/${name}`;
+}
+
+function escapeRegExp(s) {
+  return s.replace(/[.*+?^${}()|[\]\\]/g, "\\$&");
+}
+
+if (!existsSync(STATIC)) {
+  console.error(`build-assets: ${STATIC} not found (run after process-resources)`);
+  process.exit(1);
+}
+rmSync(DIST, { recursive: true, force: true });
+mkdirSync(DIST, { recursive: true });
+
+for (const page of [...listHtml(STATIC), ...listHtml(TEMPLATES)]) await buildPage(page);
+writeFileSync(join(DIST, "manifest.json"), JSON.stringify(manifest, null, 2));
+
+warnings.forEach(w => console.warn(`build-assets: warning: ${w}`));
+for (const [name, size] of written) console.log(`build-assets: dist/${name} (${size} bytes)`);
+console.log(`build-assets: ${Object.keys(manifest).length} pages rewritten into ${written.size} bundles`);
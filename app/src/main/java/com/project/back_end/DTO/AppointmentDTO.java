@@ -3,9 +3,15 @@ package com.project.back_end.DTO;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 
 public class AppointmentDTO {
 
+    // Fields selectable with ?fields= on appointment lists (JSON names of this DTO)
+    public static final List<String> FIELDS = List.of(
+            "id", "doctorId", "doctorName", "patientId", "patientName", "patientEmail", "patientPhone",
+            "patientAddress", "appointmentTime", "status", "appointmentDate", "appointmentTimeOnly", "endTime");
+
     // Core fields
     private Long id;
     private Long doctorId;
@@ -33,6 +39,7 @@ public class AppointmentDTO {
                           String patientPhone,
                           String patientAddress,
                           LocalDateTime appointmentTime,
+                          LocalDateTime endTime,
                           int status) {
         this.id = id;
         this.doctorId = doctorId;
@@ -43,13 +50,13 @@ public class AppointmentDTO {
         this.patientPhone = patientPhone;
         this.patientAddress = patientAddress;
         this.appointmentTime = appointmentTime;
+        this.endTime = endTime;
         this.status = status;
 
         // Derived values
         if (appointmentTime != null) {
             this.appointmentDate = appointmentTime.toLocalDate();
             this.appointmentTimeOnly = appointmentTime.toLocalTime();
-            this.endTime = appointmentTime.plusHours(1);
         }
     }
 
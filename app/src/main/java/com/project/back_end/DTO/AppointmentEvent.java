@@ -0,0 +1,36 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class AppointmentEvent {
+
+    public enum Type { BOOKED, UPDATED, CANCELLED, STATUS_CHANGED }
+
+    // Core fields
+    private final Type type;
+    private final Long appointmentId;
+    private final Long doctorId;
+    private final LocalDateTime appointmentTime;
+    private final Integer status;
+
+    // Constructor
+    public AppointmentEvent(Type type, Long appointmentId, Long doctorId,
+                            LocalDateTime appointmentTime, Integer status) {
+        this.type = type;
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.appointmentTime = appointmentTime;
+        this.status = status;
+    }
+
+    // Getters
+    public Type getType() { return type; }
+    public Long getAppointmentId() { return appointmentId; }
+    public Long getDoctorId() { return doctorId; }
+    public LocalDateTime getAppointmentTime() { return appointmentTime; }
+    public Integer getStatus() { return status; }
+    public LocalDate getAppointmentDate() {
+        return appointmentTime != null ? appointmentTime.toLocalDate() : null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.project.back_end.DTO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchRequest {
+
+    // Ordered sub-requests; "{token}" in a path is replaced with the batch token
+    private List<Item> requests = new ArrayList<>();
+
+    public BatchRequest() {}
+
+    public List<Item> getRequests() {
+        return requests;
+    }
+
+    public void setRequests(List<Item> requests) {
+        this.requests = requests;
+    }
+
+    public static class Item {
+
+        private String id;       // echoed back in the response envelope (defaults to the index)
+        private String method;   // GET, POST, PUT or DELETE
+        private String path;     // e.g. "/patient/{token}" or "/doctor?fields=id,name"
+        private JsonNode body;   // optional JSON body for POST/PUT
+
+        public Item() {}
+
+        public Item(String id, String method, String path, JsonNode body) {
+            this.id = id;
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        // Getters and Setters
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public JsonNode getBody() {
+            return body;
+        }
+
+        public void setBody(JsonNode body) {
+            this.body = body;
+        }
+    }
+}
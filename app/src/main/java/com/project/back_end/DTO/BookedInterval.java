@@ -0,0 +1,22 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+public class BookedInterval {
+
+    // Lightweight projection of an appointment for conflict checks
+    private final Long id;
+    private final LocalDateTime start;
+    private final Integer durationMinutes;
+
+    public BookedInterval(Long id, LocalDateTime start, Integer durationMinutes) {
+        this.id = id;
+        this.start = start;
+        this.durationMinutes = durationMinutes;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public LocalDateTime getStart() { return start; }
+    public Integer getDurationMinutes() { return durationMinutes; }
+}
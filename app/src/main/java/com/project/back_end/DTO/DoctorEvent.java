@@ -0,0 +1,43 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.Doctor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DoctorEvent {
+
+    public enum Type { SAVED, DELETED }
+
+    // Snapshot taken at publish time (inside the transaction), so listeners running
+    // after commit never touch lazy entity state
+    private final Type type;
+    private final Long doctorId;
+    private final String name;
+    private final String specialty;
+    private final List<String> availableTimes;
+
+    private DoctorEvent(Type type, Long doctorId, String name, String specialty, List<String> availableTimes) {
+        this.type = type;
+        this.doctorId = doctorId;
+        this.name = name;
+        this.specialty = specialty;
+        this.availableTimes = availableTimes;
+    }
+
+    public static DoctorEvent saved(Doctor d) {
+        List<String> times = d.getAvailableTimes() == null ? List.of() : new ArrayList<>(d.getAvailableTimes());
+        return new DoctorEvent(Type.SAVED, d.getId(), d.getName(), d.getSpecialty(), times);
+    }
+
+    public static DoctorEvent deleted(Long doctorId) {
+        return new DoctorEvent(Type.DELETED, doctorId, null, null, List.of());
+    }
+
+    // Getters
+    public Type getType() { return type; }
+    public Long getDoctorId() { return doctorId; }
+    public String getName() { return name; }
+    public String getSpecialty() { return specialty; }
+    public List<String> getAvailableTimes() { return availableTimes; }
+}
@@ -0,0 +1,52 @@
+package com.project.back_end.DTO;
+
+import java.util.*;
+
+/**
+ * Parsed `fields=` query parameter for sparse list responses.
+ * - null/blank → everything (the regular full response)
+ * - otherwise the requested names, kept in the order of the allowed list
+ * - unknown names → IllegalArgumentException (controllers answer 400)
+ */
+public final class FieldSelection {
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection parse(String raw, List<String> allowed) {
+        if (raw == null || raw.isBlank()) return ALL;
+        Set<String> requested = new HashSet<>();
+        for (String f : raw.split(",")) {
+            String name = f.trim();
+            if (name.isEmpty()) continue;
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', allowed: " + String.join(",", allowed));
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) return ALL;
+
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String a : allowed) {
+            if (requested.contains(a)) ordered.add(a);
+        }
+        return new FieldSelection(Collections.unmodifiableSet(ordered));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public Set<String> fields() {
+        return fields;
+    }
+}
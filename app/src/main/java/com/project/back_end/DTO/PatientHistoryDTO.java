@@ -0,0 +1,21 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.Prescription;
+
+import java.util.List;
+
+public class PatientHistoryDTO {
+
+    // One past/future appointment plus the prescriptions written for it (possibly none)
+    private final AppointmentDTO appointment;
+    private final List<Prescription> prescriptions;
+
+    public PatientHistoryDTO(AppointmentDTO appointment, List<Prescription> prescriptions) {
+        this.appointment = appointment;
+        this.prescriptions = prescriptions;
+    }
+
+    // Getters
+    public AppointmentDTO getAppointment() { return appointment; }
+    public List<Prescription> getPrescriptions() { return prescriptions; }
+}
@@ -0,0 +1,37 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.Prescription;
+
+import java.time.LocalDateTime;
+
+public class PrescriptionSearchHit {
+
+    // A prescription matching a medication search, with the appointment and patient it was written for
+    // (appointment fields are null if the appointment no longer exists)
+    private final Prescription prescription;
+    private final Long patientId;
+    private final Long doctorId;
+    private final String doctorName;
+    private final LocalDateTime appointmentTime;
+    private final boolean archived;
+
+    public PrescriptionSearchHit(Prescription prescription, Long patientId, Long doctorId,
+                                 String doctorName, LocalDateTime appointmentTime, boolean archived) {
+        this.prescription = prescription;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.appointmentTime = appointmentTime;
+        this.archived = archived;
+    }
+
+    // Getters
+    public Prescription getPrescription() { return prescription; }
+    public Long getAppointmentId() { return prescription.getAppointmentId(); }
+    public Long getPatientId() { return patientId; }
+    public String getPatientName() { return prescription.getPatientName(); }
+    public Long getDoctorId() { return doctorId; }
+    public String getDoctorName() { return doctorName; }
+    public LocalDateTime getAppointmentTime() { return appointmentTime; }
+    public boolean isArchived() { return archived; }
+}
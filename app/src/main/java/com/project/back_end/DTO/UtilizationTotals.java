@@ -0,0 +1,23 @@
+package com.project.back_end.DTO;
+
+public class UtilizationTotals {
+
+    // Summed rollup counters for one doctor over a period range
+    private final Long doctorId;
+    private final long booked;
+    private final long completed;
+    private final long cancelled;
+
+    public UtilizationTotals(Long doctorId, Long booked, Long completed, Long cancelled) {
+        this.doctorId = doctorId;
+        this.booked = booked != null ? booked : 0;
+        this.completed = completed != null ? completed : 0;
+        this.cancelled = cancelled != null ? cancelled : 0;
+    }
+
+    // Getters
+    public Long getDoctorId() { return doctorId; }
+    public long getBooked() { return booked; }
+    public long getCompleted() { return completed; }
+    public long getCancelled() { return cancelled; }
+}
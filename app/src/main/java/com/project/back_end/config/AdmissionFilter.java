@@ -0,0 +1,120 @@
+package com.project.back_end.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backpressure in front of the API: once a connection pool has too many threads waiting for a
+ * connection (ConnectionPoolMonitor), new requests are held in a small queue for up to max-wait-ms
+ * and then answered 503 + Retry-After, instead of joining the pool wait and timing out later.
+ * Static files, actuator and SSE streams are never held back.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final List<String> EXEMPT_PREFIXES =
+            List.of("/assets/", "/js/", "/dist/", "/pages/", "/actuator", "/favicon.ico");
+
+    private final ConnectionPoolMonitor pools;
+    private final boolean enabled;
+    private final int maxPendingJdbc;
+    private final int maxPendingMongo;
+    private final long maxWaitNanos;
+    private final int queueSize;
+    private final Semaphore queue;
+    private final Counter rejectedJdbc;
+    private final Counter rejectedMongo;
+
+    public AdmissionFilter(ConnectionPoolMonitor pools,
+                           MeterRegistry meterRegistry,
+                           @Value("${admission.enabled:true}") boolean enabled,
+                           @Value("${admission.max-pending-jdbc:5}") int maxPendingJdbc,
+                           @Value("${admission.max-pending-mongo:10}") int maxPendingMongo,
+                           @Value("${admission.max-wait-ms:200}") long maxWaitMs,
+                           @Value("${admission.queue-size:50}") int queueSize) {
+        this.pools = pools;
+        this.enabled = enabled;
+        this.maxPendingJdbc = maxPendingJdbc;
+        this.maxPendingMongo = maxPendingMongo;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.queueSize = queueSize;
+        this.queue = new Semaphore(queueSize);
+        this.rejectedJdbc = Counter.builder("http.server.admission.rejected").tag("pool", "jdbc")
+                .description("Requests answered 503 because a connection pool was saturated")
+                .register(meterRegistry);
+        this.rejectedMongo = Counter.builder("http.server.admission.rejected").tag("pool", "mongo")
+                .description("Requests answered 503 because a connection pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("http.server.admission.queued", queue, q -> queueSize - q.availablePermits())
+                .description("Requests held back waiting for a connection pool to drain")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!enabled) return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/") || path.endsWith(".html")) return true;
+        if (path.contains("/stream/")) return true; // SSE: long-lived, holds no connection while open
+        return EXEMPT_PREFIXES.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        String saturated = saturatedPool();
+        if (saturated != null) {
+            saturated = waitForCapacity();
+            if (saturated != null) {
+                (saturated.equals("jdbc") ? rejectedJdbc : rejectedMongo).increment();
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", "1");
+                response.setContentType("application/json");
+                response.getWriter().write("{\"error\":\"Server busy, please retry shortly\"}");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    // null when every pool is below its threshold, else "jdbc" / "mongo"
+    private String saturatedPool() {
+        if (pools.jdbcPending() >= maxPendingJdbc) return "jdbc";
+        if (pools.mongoPending() >= maxPendingMongo) return "mongo";
+        return null;
+    }
+
+    // Holds the request (queue permit) until the pools drain or max-wait passes; full queue → no wait
+    private String waitForCapacity() {
+        if (maxWaitNanos <= 0 || !queue.tryAcquire()) return saturatedPool();
+        try {
+            long deadline = System.nanoTime() + maxWaitNanos;
+            String saturated = saturatedPool();
+            while (saturated != null && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+                saturated = saturatedPool();
+            }
+            return saturated;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return saturatedPool();
+        } finally {
+            queue.release();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.back_end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor used to fan out independent store calls (MySQL + Mongo) within one request.
+ * Bounded pool + queue; trace context is propagated to worker threads.
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String FAN_OUT_EXECUTOR = "fanOutExecutor";
+    public static final String BATCH_EXECUTOR = "batchExecutor";
+    public static final String MAINTENANCE_EXECUTOR = "maintenanceExecutor";
+    public static final String STREAM_EXECUTOR = "streamExecutor";
+
+    @Bean(name = FAN_OUT_EXECUTOR)
+    public ThreadPoolTaskExecutor fanOutExecutor(@Value("${fanout.pool-size:16}") int poolSize,
+                                                 @Value("${fanout.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fanout-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    // Separate pool for batch sub-requests: they block on their own fan-outs, so sharing
+    // fanOutExecutor could leave every worker waiting on tasks queued behind it
+    @Bean(name = BATCH_EXECUTOR)
+    public ThreadPoolTaskExecutor batchExecutor(@Value("${batch.pool-size:16}") int poolSize,
+                                                @Value("${batch.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("batch-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    // Long-running throttled jobs (doctor purge, archive) run here, not on the @Scheduled threads,
+    // so slot-hold expiry, heartbeats and refresh jobs keep their timing while a purge runs
+    @Bean(name = MAINTENANCE_EXECUTOR)
+    public ThreadPoolTaskExecutor maintenanceExecutor(@Value("${maintenance.pool-size:2}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize);
+        executor.setThreadNamePrefix("maintenance-");
+        executor.initialize();
+        return executor;
+    }
+
+    // SSE sends: after-commit listeners and the heartbeat hand writes to this pool, so a slow client
+    // never delays the booking response or the scheduler thread
+    @Bean(name = STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor streamExecutor(@Value("${appointments.stream.pool-size:4}") int poolSize,
+                                                 @Value("${appointments.stream.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("sse-");
+        executor.initialize();
+        return executor;
+    }
+}
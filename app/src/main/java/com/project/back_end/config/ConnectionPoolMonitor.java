@@ -0,0 +1,136 @@
+package com.project.back_end.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pool visibility for both stores, and the pending-acquisition counts AdmissionFilter reads.
+ * - Hikari (primary and any replicas): hikaricp.connections.{active,idle,pending} gauges and the
+ *   hikaricp.connections.acquire timer, tagged by pool name. Replica pools are not beans, so they
+ *   are bound here; Spring Boot only binds the DataSource bean.
+ * - Mongo: Spring Boot's mongodb.driver.pool.{size,checkedout,waitqueuesize} gauges, plus the
+ *   mongodb.driver.pool.acquire timer recorded here (check-out start → connection handed over).
+ * Histogram buckets for both timers: management.metrics.distribution.percentiles-histogram.*
+ */
+@Configuration
+public class ConnectionPoolMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolMonitor.class);
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final MeterRegistry meterRegistry;
+    private final Timer mongoAcquired;
+    private final Timer mongoAcquireFailed;
+    private final AtomicInteger mongoPending = new AtomicInteger();
+
+    private volatile List<HikariDataSource> hikariPools = List.of();
+
+    public ConnectionPoolMonitor(ObjectProvider<DataSource> dataSource, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.mongoAcquired = Timer.builder("mongodb.driver.pool.acquire")
+                .description("Time waiting for a Mongo connection from the pool")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.mongoAcquireFailed = Timer.builder("mongodb.driver.pool.acquire")
+                .description("Time waiting for a Mongo connection from the pool")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        Gauge.builder("mongodb.driver.pool.pending", mongoPending, AtomicInteger::get)
+                .description("Mongo connection check-outs currently waiting")
+                .register(meterRegistry);
+    }
+
+    /* ==== 1) pending acquisitions (read on every admitted request) ==== */
+
+    // Largest number of threads waiting on any one Hikari pool (0 while a pool is not started yet)
+    public int jdbcPending() {
+        int max = 0;
+        for (HikariDataSource pool : hikariPools) {
+            HikariPoolMXBean mx = pool.getHikariPoolMXBean();
+            if (mx != null) max = Math.max(max, mx.getThreadsAwaitingConnection());
+        }
+        return max;
+    }
+
+    public int mongoPending() {
+        return mongoPending.get();
+    }
+
+    /* ==== 2) Hikari pools: discover and bind metrics ==== */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindHikariPools() {
+        DataSource ds = dataSource.getIfAvailable();
+        if (ds == null) return;
+
+        List<HikariDataSource> pools = new ArrayList<>();
+        // check the router first: unwrapping it to Hikari would return whichever pool is current
+        ReadReplicaRoutingDataSource routing = DataSourceUnwrapper.unwrap(ds, ReadReplicaRoutingDataSource.class);
+        if (routing != null) {
+            for (DataSource target : routing.getResolvedDataSources().values()) {
+                if (target instanceof HikariDataSource hikari) pools.add(hikari);
+            }
+        } else {
+            HikariDataSource hikari = DataSourceUnwrapper.unwrap(ds, HikariDataSource.class);
+            if (hikari != null) pools.add(hikari);
+        }
+
+        for (HikariDataSource pool : pools) {
+            if (pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null) {
+                try {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                } catch (IllegalStateException e) {
+                    log.warn("Could not bind metrics to pool {}: {}", pool.getPoolName(), e.getMessage());
+                }
+            }
+        }
+        hikariPools = List.copyOf(pools);
+    }
+
+    /* ==== 3) Mongo pool listener ==== */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolMetricsCustomizer() {
+        ConnectionPoolListener listener = new ConnectionPoolListener() {
+            @Override
+            public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+                mongoPending.incrementAndGet();
+            }
+
+            @Override
+            public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+                mongoPending.decrementAndGet();
+                mongoAcquired.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+                mongoPending.decrementAndGet();
+                mongoAcquireFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            }
+        };
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(listener));
+    }
+}
@@ -0,0 +1,63 @@
+package com.project.back_end.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primary/replica datasource, active only when datasource.replicas.urls is set.
+ * @Transactional(readOnly = true) → replica; writes and reads inside write transactions → primary.
+ * Without replicas Spring Boot's default single datasource is used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "urls")
+public class DataSourceRoutingConfig {
+
+    private ReadReplicaRoutingDataSource routing;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 @Value("${datasource.replicas.urls}") List<String> replicaUrls,
+                                 @Value("${datasource.replicas.max-lag-seconds:5}") long maxLagSeconds,
+                                 @Value("${datasource.replicas.lag-check-enabled:true}") boolean lagCheckEnabled) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(replicaUrls.get(i).trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        routing = new ReadReplicaRoutingDataSource(primary, replicas, maxLagSeconds, lagCheckEnabled);
+        routing.refreshReplicaHealth();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-ms:5000}")
+    public void checkReplicaLag() {
+        if (routing != null) routing.refreshReplicaHealth();
+    }
+}
@@ -0,0 +1,39 @@
+package com.project.back_end.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Small separate pool for the streaming exports (ExportService).
+ * - Its URL (export.datasource.url) carries useCursorFetch=true, so MySQL streams rows through a
+ *   server-side cursor; the main URL keeps the driver default for every other query
+ * - Not a default candidate: DataSource injection and Boot's datasource auto-configuration only
+ *   see the main pool; ExportService asks for this one by name
+ */
+@Configuration
+public class ExportDataSourceConfig {
+
+    public static final String EXPORT_DATA_SOURCE = "exportDataSource";
+
+    @Bean(name = EXPORT_DATA_SOURCE, defaultCandidate = false)
+    public HikariDataSource exportDataSource(DataSourceProperties properties,
+                                             @Value("${export.datasource.url}") String url,
+                                             @Value("${export.datasource.pool-size:2}") int poolSize) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(properties.determineUsername())
+                .password(properties.determinePassword())
+                .build();
+        dataSource.setPoolName("export");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(0); // exports are rare: no idle connections held between them
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
@@ -0,0 +1,85 @@
+package com.project.back_end.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes declared on @Document classes (@Indexed, @TextIndexed) before the app takes traffic,
+ * in every profile; spring.data.mongodb.auto-index-creation is off so the steps run in this order:
+ * 1) drop indexes that an earlier version created under another name on the same keys
+ *    (createIndex would fail with IndexOptionsConflict)
+ * 2) create the declared indexes (a no-op when they already exist)
+ * Failures are logged, not fatal: the app still starts while Mongo is unreachable
+ * (mongo.indexes.fail-on-error=true makes them fatal, for the migrate deploy step).
+ */
+@Component
+@Lazy(false)
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    // collection -> index names replaced by a declared index
+    // - prescriptions.appointmentId_idx: non-unique, now appointmentId_unique
+    private static final Map<String, List<String>> LEGACY_INDEXES =
+            Map.of("prescriptions", List.of("appointmentId_idx"));
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final boolean failOnError;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+                                 @Value("${mongo.indexes.create-on-startup:true}") boolean enabled,
+                                 @Value("${mongo.indexes.fail-on-error:false}") boolean failOnError) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.failOnError = failOnError;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) return;
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (MongoPersistentEntity<?> entity : mongoTemplate.getConverter().getMappingContext().getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) continue;
+            String collection = entity.getCollection();
+            try {
+                IndexOperations ops = mongoTemplate.indexOps(collection);
+                dropLegacyIndexes(collection, ops);
+                for (IndexDefinition index : resolver.resolveIndexFor(entity.getType())) {
+                    ops.ensureIndex(index);
+                }
+            } catch (Exception e) {
+                if (failOnError) throw new IllegalStateException("Could not create indexes for collection " + collection, e);
+                log.error("Could not create indexes for collection {}", collection, e);
+            }
+        }
+    }
+
+    private void dropLegacyIndexes(String collection, IndexOperations ops) {
+        List<String> legacy = LEGACY_INDEXES.getOrDefault(collection, List.of());
+        if (legacy.isEmpty()) return;
+        Set<String> existing = ops.getIndexInfo().stream().map(IndexInfo::getName).collect(Collectors.toSet());
+        for (String name : legacy) {
+            if (existing.contains(name)) {
+                ops.dropIndex(name);
+                log.info("Dropped index {}.{} (replaced by a declared index)", collection, name);
+            }
+        }
+    }
+}
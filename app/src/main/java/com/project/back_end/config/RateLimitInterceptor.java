@@ -0,0 +1,65 @@
+package com.project.back_end.config;
+
+import com.project.back_end.services.RateLimiter;
+import com.project.back_end.services.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for one endpoint group (login, booking, search).
+ * Callers are keyed by token subject when the route carries a {token}, else by client address.
+ * Over-limit requests get 429 + Retry-After (seconds) without reaching the controller.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final String name;
+    private final String method;
+    private final int capacity;
+    private final double refillPerSecond;
+    private final RateLimiter rateLimiter;
+    private final TokenService tokenService;
+
+    public RateLimitInterceptor(String name, String method, int capacity, double refillPerSecond,
+                                RateLimiter rateLimiter, TokenService tokenService) {
+        this.name = name;
+        this.method = method;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.rateLimiter = rateLimiter;
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+                             @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws Exception {
+        if (!method.equalsIgnoreCase(request.getMethod())) return true;
+
+        long waitNanos = rateLimiter.tryAcquire(name + ":" + callerKey(request), capacity, refillPerSecond);
+        if (waitNanos == 0) return true;
+
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many requests, retry later\"}");
+        return false;
+    }
+
+    private String callerKey(HttpServletRequest request) {
+        Object vars = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (vars instanceof Map<?, ?> m && m.get("token") instanceof String token) {
+            String subject = tokenService.extractIdentifier(token);
+            if (subject != null) return "sub:" + subject;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,126 @@
+package com.project.back_end.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions to a healthy replica (round robin), everything else to the primary.
+ * - A replica is healthy while its replication lag is within maxLagSeconds (checked by refreshReplicaHealth)
+ * - No healthy replica → read-only transactions fall back to the primary
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the connection is taken after
+ * the transaction's read-only flag has been set.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final List<DataSource> replicas;
+    private final long maxLagSeconds;
+    private final boolean lagCheckEnabled;
+    private volatile boolean[] healthy; // replaced wholesale on refresh (copy-on-write)
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                        long maxLagSeconds, boolean lagCheckEnabled) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagCheckEnabled = lagCheckEnabled;
+        boolean[] initial = new boolean[replicas.size()];
+        Arrays.fill(initial, !lagCheckEnabled); // unknown until first check
+        this.healthy = initial;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(replicaKey(i), this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return PRIMARY;
+
+        boolean[] current = healthy;
+        int n = current.length;
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(n, 1));
+        for (int i = 0; i < n; i++) {
+            int idx = (start + i) % n;
+            if (current[idx]) return replicaKey(idx);
+        }
+        return PRIMARY;
+    }
+
+    /* ===== Lag check: Seconds_Behind_Source (8.0.22+) or Seconds_Behind_Master ===== */
+    public void refreshReplicaHealth() {
+        if (!lagCheckEnabled) return;
+        boolean[] updated = healthy.clone();
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean ok;
+            try {
+                Long lag = replicationLagSeconds(replicas.get(i));
+                ok = lag != null && lag <= maxLagSeconds;
+            } catch (SQLException e) {
+                ok = false;
+            }
+            if (ok != updated[i]) {
+                log.warn("Replica {} is now {}", i, ok ? "in rotation" : "out of rotation (lag/unreachable)");
+            }
+            updated[i] = ok;
+        }
+        healthy = updated;
+    }
+
+    // test/ops hook
+    void setReplicaHealthy(int index, boolean ok) {
+        boolean[] updated = healthy.clone();
+        updated[index] = ok;
+        healthy = updated;
+    }
+
+    private Long replicationLagSeconds(DataSource ds) throws SQLException {
+        try (Connection c = ds.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = executeStatus(st)) {
+            if (!rs.next()) return null; // not replicating
+            for (String col : new String[]{"Seconds_Behind_Source", "Seconds_Behind_Master"}) {
+                try {
+                    long v = rs.getLong(col);
+                    return rs.wasNull() ? null : v;
+                } catch (SQLException ignored) {
+                    // column not present in this server version
+                }
+            }
+            return null;
+        }
+    }
+
+    private ResultSet executeStatus(Statement st) throws SQLException {
+        try {
+            return st.executeQuery("SHOW REPLICA STATUS");
+        } catch (SQLException e) {
+            return st.executeQuery("SHOW SLAVE STATUS");
+        }
+    }
+
+    static String replicaKey(int i) {
+        return "replica-" + i;
+    }
+}
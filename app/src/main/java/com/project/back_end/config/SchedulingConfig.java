@@ -0,0 +1,14 @@
+package com.project.back_end.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background work (SSE heartbeats, maintenance jobs).
+ * Runs on Spring Boot's scheduler (spring.task.scheduling.pool.size threads); jobs that run for long
+ * (doctor purge, archive) only trigger work on AsyncConfig's maintenance executor.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
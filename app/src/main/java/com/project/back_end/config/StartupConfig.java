@@ -0,0 +1,73 @@
+package com.project.back_end.config;
+
+import com.mongodb.client.MongoClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startup settings used by the prod profile (application-prod.properties), and the time-to-first-request metric.
+ * - lazy initialization: connection pools, JPA and the Mongo client are still created at startup, so the
+ *   first request after a deploy does not pay for them; beans with @Scheduled methods are kept eager by Spring Boot.
+ * - deferred JPA repositories: the EntityManagerFactory is built on a background thread while the rest
+ *   of the context starts.
+ * - application.first.request.time: JVM start until the first request is handled, next to Spring Boot's
+ *   application.started.time / application.ready.time. scripts/startup-benchmark.sh measures it from outside.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupConfig.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final AtomicBoolean firstRequestHandled = new AtomicBoolean();
+
+    public StartupConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /* ==== 1) beans kept eager under spring.main.lazy-initialization ==== */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerPersistenceBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class, MongoClient.class);
+    }
+
+    /* ==== 2) background JPA bootstrap ==== */
+    // Spring Boot only does this on a bean named applicationTaskExecutor, which AsyncConfig's executors replace
+    @Bean
+    @ConditionalOnProperty(name = "spring.data.jpa.repositories.bootstrap-mode", havingValue = "deferred")
+    public EntityManagerFactoryBuilderCustomizer jpaBackgroundBootstrap() {
+        return builder -> builder.setBootstrapExecutor(new SimpleAsyncTaskExecutor("jpa-bootstrap-"));
+    }
+
+    /* ==== 3) time to first request ==== */
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (firstRequestHandled.get() || !firstRequestHandled.compareAndSet(false, true)) return;
+
+        long elapsedMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            TimeGauge.builder("application.first.request.time", () -> elapsedMs, TimeUnit.MILLISECONDS)
+                    .description("Time from JVM start until the first request was handled")
+                    .register(registry);
+        }
+        log.info("First request ({}) handled {} ms after JVM start", event.getRequestUrl(), elapsedMs);
+    }
+}
@@ -0,0 +1,99 @@
+package com.project.back_end.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Request tracing.
+ * - HTTP server span per request comes from actuator's MVC observation
+ * - child spans per public method of the @Service facades and per repository call (aspect below);
+ *   helpers (RateLimiter, TokenService, token revocation) and @Scheduled / event-listener methods get none
+ * - Mongo command spans via the driver command listener
+ * - JDBC query spans (SQL + bind values) via datasource-micrometer
+ * Finished spans are written as OTLP JSON lines by the logging exporter
+ * (see logback-spring.xml for the target file).
+ */
+@Configuration
+public class TracingConfig {
+
+    /* ===== Exporter: OTLP JSON to the "traces" log appender ===== */
+    @Bean
+    public SpanExporter otlpJsonLoggingSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+
+    /* ===== Mongo: one span per command sent to the server ===== */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry registry) {
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(registry))
+                .addCommandListener(new MongoObservationCommandListener(registry));
+    }
+
+    /* ===== Service + repository spans ===== */
+    @Bean
+    public LayerTracingAspect layerTracingAspect(ObservationRegistry registry) {
+        return new LayerTracingAspect(registry);
+    }
+
+    @Aspect
+    public static class LayerTracingAspect {
+
+        private static final String REPO_PACKAGE = "com.project.back_end.repo";
+
+        private final ObservationRegistry registry;
+
+        public LayerTracingAspect(ObservationRegistry registry) {
+            this.registry = registry;
+        }
+
+        // request-level service calls only: @Service beans, minus token revocation (checked on every
+        // authenticated request) and background entry points (heartbeats, refreshes, after-commit listeners)
+        @Around("execution(public * com.project.back_end.services..*(..))"
+                + " && @within(org.springframework.stereotype.Service)"
+                + " && !within(com.project.back_end.services.TokenRevocationService)"
+                + " && !@annotation(org.springframework.scheduling.annotation.Scheduled)"
+                + " && !@annotation(org.springframework.context.event.EventListener)"
+                + " && !@annotation(org.springframework.transaction.event.TransactionalEventListener)")
+        public Object traceService(ProceedingJoinPoint pjp) throws Throwable {
+            String type = pjp.getSignature().getDeclaringType().getSimpleName();
+            return observe("app.service", type, pjp);
+        }
+
+        @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+        public Object traceRepository(ProceedingJoinPoint pjp) throws Throwable {
+            return observe("app.repository", repositoryName(pjp), pjp);
+        }
+
+        private Object observe(String name, String type, ProceedingJoinPoint pjp) throws Throwable {
+            String method = pjp.getSignature().getName();
+            return Observation.createNotStarted(name, registry)
+                    .contextualName(type + "." + method)
+                    .lowCardinalityKeyValue("class", type)
+                    .lowCardinalityKeyValue("method", method)
+                    .observeChecked((Observation.CheckedCallable<Object, Throwable>) pjp::proceed);
+        }
+
+        // Spring Data proxies implement our repo interface; inherited methods (findById, save...)
+        // would otherwise be reported as CrudRepository/ListCrudRepository
+        private String repositoryName(ProceedingJoinPoint pjp) {
+            Object target = pjp.getThis();
+            if (target != null) {
+                for (Class<?> i : target.getClass().getInterfaces()) {
+                    if (i.getName().startsWith(REPO_PACKAGE)) return i.getSimpleName();
+                }
+            }
+            return pjp.getSignature().getDeclaringType().getSimpleName();
+        }
+    }
+}
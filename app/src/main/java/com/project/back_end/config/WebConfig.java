@@ -1,15 +1,55 @@
 package com.project.back_end.config;
 
 
+import com.project.back_end.services.RateLimiter;
+import com.project.back_end.services.TokenService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.lang.NonNull; 
+import org.springframework.http.CacheControl;
+import org.springframework.lang.NonNull;
 
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.time.Duration;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final RateLimiter rateLimiter;
+    private final TokenService tokenService;
+
+    @Value("${api.path}")
+    private String apiPath;
+
+    // Per-endpoint token buckets: capacity = burst size, per-second = sustained rate
+    @Value("${ratelimit.login.capacity:10}")
+    private int loginCapacity;
+    @Value("${ratelimit.login.per-second:0.5}")
+    private double loginPerSecond;
+
+    @Value("${ratelimit.booking.capacity:5}")
+    private int bookingCapacity;
+    @Value("${ratelimit.booking.per-second:0.2}")
+    private double bookingPerSecond;
+
+    @Value("${ratelimit.search.capacity:30}")
+    private int searchCapacity;
+    @Value("${ratelimit.search.per-second:5}")
+    private double searchPerSecond;
+
+    // Fingerprinted bundles from the asset pipeline (src/main/frontend/build-assets.mjs)
+    @Value("${assets.dist.max-age-days:365}")
+    private long distMaxAgeDays;
+
+    public WebConfig(RateLimiter rateLimiter, TokenService tokenService) {
+        this.rateLimiter = rateLimiter;
+        this.tokenService = tokenService;
+    }
+
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry) {
         // Allow CORS for all endpoints
@@ -18,4 +58,29 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE")  // Specify allowed methods
                 .allowedHeaders("*");  // You can restrict headers if needed
     }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        // Rate limiting: login, booking and doctor search
+        registry.addInterceptor(new RateLimitInterceptor("login", "POST",
+                        loginCapacity, loginPerSecond, rateLimiter, tokenService))
+                .addPathPatterns(apiPath + "doctor/login", apiPath + "patient/login", apiPath + "admin/login");
+        registry.addInterceptor(new RateLimitInterceptor("booking", "POST",
+                        bookingCapacity, bookingPerSecond, rateLimiter, tokenService))
+                .addPathPatterns(apiPath + "appointments/*");
+        registry.addInterceptor(new RateLimitInterceptor("search", "GET",
+                        searchCapacity, searchPerSecond, rateLimiter, tokenService))
+                .addPathPatterns(apiPath + "doctor/filter/**");
+    }
+
+    @Override
+    public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
+        // /dist/** names carry a content hash, so they never change: cache for good and
+        // serve the prebuilt .br/.gz variant the client accepts (Vary: Accept-Encoding)
+        registry.addResourceHandler("/dist/**")
+                .addResourceLocations("classpath:/static/dist/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(distMaxAgeDays)).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
 }
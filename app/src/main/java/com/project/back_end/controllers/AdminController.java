@@ -1,10 +1,16 @@
 package com.project.back_end.controllers;
 
 import com.project.back_end.models.Admin;
+import com.project.back_end.services.ExportService;
 import com.project.back_end.services.Service;
+import com.project.back_end.services.UtilizationService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -12,10 +18,14 @@ import java.util.Map;
 public class AdminController {
 
     private final Service service;
+    private final ExportService exportService;
+    private final UtilizationService utilizationService;
 
     // Constructor injection for the Service dependency
-    public AdminController(Service service) {
+    public AdminController(Service service, ExportService exportService, UtilizationService utilizationService) {
         this.service = service;
+        this.exportService = exportService;
+        this.utilizationService = utilizationService;
     }
 
     // POST /api/admin/login
@@ -23,6 +33,84 @@ public class AdminController {
     public ResponseEntity<Map<String, String>> adminLogin(@RequestBody Admin admin) {
         return service.validateAdmin(admin);
     }
-}
 
+    // POST /admin/logout/{token} (revokes the token)
+    @PostMapping("/logout/{token}")
+    public ResponseEntity<Map<String, String>> adminLogout(@PathVariable String token) {
+        return service.logout(token);
+    }
+
+    // GET /admin/analytics/utilization/{token}?from=2024-01-01&to=2024-03-31
+    // Per-doctor bookings, fill rate, completion rate and cancellations from the rollups
+    @GetMapping("/analytics/utilization/{token}")
+    public ResponseEntity<Map<String, Object>> getUtilization(
+            @PathVariable String token,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "admin");
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", "Unauthorized or invalid token"));
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "to must not be before from"));
+        }
+        return ResponseEntity.ok(utilizationService.getUtilization(from, to));
+    }
+
+    // GET /admin/export/appointments/{token}?from=2024-01-01&to=2024-12-31&doctorId=&format=ndjson|csv
+    // Streams rows straight to the response (no paging, constant heap)
+    @GetMapping("/export/appointments/{token}")
+    public ResponseEntity<Map<String, String>> exportAppointments(
+            @PathVariable String token,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(defaultValue = ExportService.NDJSON) String format,
+            HttpServletResponse response) throws IOException {
 
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "admin");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        if (!ExportService.isSupportedFormat(format)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "format must be ndjson or csv"));
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "to must not be before from"));
+        }
+
+        startDownload(response, "appointments-" + from + "-" + to, format);
+        exportService.exportAppointments(from, to, doctorId, format, response.getOutputStream());
+        return null; // response already written
+    }
+
+    // GET /admin/export/prescriptions/{token}?format=ndjson|csv
+    @GetMapping("/export/prescriptions/{token}")
+    public ResponseEntity<Map<String, String>> exportPrescriptions(
+            @PathVariable String token,
+            @RequestParam(defaultValue = ExportService.NDJSON) String format,
+            HttpServletResponse response) throws IOException {
+
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "admin");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        if (!ExportService.isSupportedFormat(format)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "format must be ndjson or csv"));
+        }
+
+        startDownload(response, "prescriptions", format);
+        exportService.exportPrescriptions(format, response.getOutputStream());
+        return null; // response already written
+    }
+
+    private void startDownload(HttpServletResponse response, String name, String format) {
+        boolean csv = ExportService.CSV.equalsIgnoreCase(format);
+        response.setStatus(200);
+        response.setContentType(csv ? "text/csv; charset=UTF-8" : "application/x-ndjson; charset=UTF-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"");
+    }
+}
@@ -1,16 +1,20 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.FieldSelection;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.services.AppointmentService;
 import com.project.back_end.services.Service;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
-@RequestMapping("/appointments")
+@RequestMapping("${api.path}" + "appointments")
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
@@ -23,12 +27,14 @@ public class AppointmentController {
 
     /* ===============================
        1) Get Appointments (Doctor only)
+       - optional ?fields=id,patientName,... (see AppointmentDTO.FIELDS)
        =============================== */
     @GetMapping("/{date}/{patientName}/{token}")
     public ResponseEntity<Map<String, Object>> getAppointments(
             @PathVariable String date,
             @PathVariable String patientName,
-            @PathVariable String token) {
+            @PathVariable String token,
+            @RequestParam(required = false) String fields) {
 
         // Validate doctor token
         ResponseEntity<Map<String, String>> validation = service.validateToken(token, "doctor");
@@ -36,15 +42,51 @@ public class AppointmentController {
             return ResponseEntity.status(validation.getStatusCode()).body(Map.of("error", "Unauthorized"));
         }
 
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, AppointmentDTO.FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
         try {
             LocalDate parsedDate = LocalDate.parse(date);
-            Map<String, Object> result = appointmentService.getAppointment(patientName, parsedDate, token);
+            Map<String, Object> result = appointmentService.getAppointment(patientName, parsedDate, token, selection);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid date format, expected yyyy-MM-dd"));
         }
     }
 
+    /* ===============================
+       1b) Stream Appointment Changes (Doctor only, SSE)
+       - events: booked, updated, cancelled, status_changed
+       =============================== */
+    @GetMapping(value = "/stream/{date}/{token}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAppointments(
+            @PathVariable String date,
+            @PathVariable String token) {
+
+        // Validate doctor token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "doctor");
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode()).build();
+        }
+
+        LocalDate parsedDate;
+        try {
+            parsedDate = LocalDate.parse(date);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        SseEmitter emitter = appointmentService.streamAppointments(parsedDate, token);
+        if (emitter == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+    }
+
     /* ===============================
        2) Book Appointment (Patient only)
        =============================== */
@@ -60,7 +102,7 @@ public class AppointmentController {
         }
 
         // Validate appointment
-        int validationResult = service.validateAppointment(appointment);
+        int validationResult = service.validateAppointment(appointment, token);
         if (validationResult == -1) {
             return ResponseEntity.badRequest().body(Map.of("message", "Invalid doctor ID"));
         } else if (validationResult == 0) {
@@ -75,6 +117,38 @@ public class AppointmentController {
         }
     }
 
+    /* ===============================
+       2b) Hold / Release a Slot (Patient only)
+       - hold keeps the slot out of other patients' availability for a short TTL
+       =============================== */
+    @PostMapping("/hold/{token}")
+    public ResponseEntity<Map<String, Object>> holdSlot(
+            @PathVariable String token,
+            @RequestBody Appointment appointment) {
+
+        // Validate patient token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "patient");
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode()).body(Map.of("message", "Unauthorized"));
+        }
+
+        return appointmentService.holdSlot(appointment, token);
+    }
+
+    @DeleteMapping("/hold/{holdId}/{token}")
+    public ResponseEntity<Map<String, String>> releaseHold(
+            @PathVariable String holdId,
+            @PathVariable String token) {
+
+        // Validate patient token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "patient");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+
+        return appointmentService.releaseHold(holdId, token);
+    }
+
     /* ===============================
        3) Update Appointment (Patient only)
        =============================== */
@@ -0,0 +1,55 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.DTO.BatchRequest;
+import com.project.back_end.services.BatchService;
+import com.project.back_end.services.Service;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("${api.path}" + "batch")
+public class BatchController {
+
+    private final BatchService batchService;
+    private final Service service;
+
+    public BatchController(BatchService batchService, Service service) {
+        this.batchService = batchService;
+        this.service = service;
+    }
+
+    /* ================================
+       1) Run a Batch of Sub-requests
+       - body: {"requests":[{"id":"me","method":"GET","path":"/patient/{token}"}, ...]}
+       - "{token}" in a path is filled in server-side; the token is validated once here
+       - response: {"responses":[{"id":"me","status":200,"body":{...}}, ...]} in request order
+       ================================ */
+    @PostMapping("/{user}/{token}")
+    public ResponseEntity<Map<String, Object>> runBatch(
+            @PathVariable String user,
+            @PathVariable String token,
+            @RequestBody BatchRequest batch,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+
+        // Validate token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, user);
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", "Unauthorized or invalid token"));
+        }
+
+        try {
+            List<Map<String, Object>> responses =
+                    batchService.execute(request, response, user, token, batch.getRequests());
+            return ResponseEntity.ok(Map.of("responses", responses));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.FieldSelection;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorPurge;
+import com.project.back_end.services.DoctorFacetService;
+import com.project.back_end.services.DoctorPurgeService;
 import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.NextAvailableService;
 import com.project.back_end.services.Service;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,10 +22,19 @@ public class DoctorController {
 
     private final DoctorService doctorService;
     private final Service service;
+    private final DoctorPurgeService doctorPurgeService;
+    private final DoctorFacetService doctorFacetService;
+    private final NextAvailableService nextAvailableService;
 
-    public DoctorController(DoctorService doctorService, Service service) {
+    public DoctorController(DoctorService doctorService, Service service,
+                            DoctorPurgeService doctorPurgeService,
+                            DoctorFacetService doctorFacetService,
+                            NextAvailableService nextAvailableService) {
         this.doctorService = doctorService;
         this.service = service;
+        this.doctorPurgeService = doctorPurgeService;
+        this.doctorFacetService = doctorFacetService;
+        this.nextAvailableService = nextAvailableService;
     }
 
     /* ================================
@@ -42,7 +56,7 @@ public class DoctorController {
 
         try {
             LocalDate parsedDate = LocalDate.parse(date);
-            List<String> availability = doctorService.getDoctorAvailability(doctorId, parsedDate);
+            List<String> availability = doctorService.getDoctorAvailability(doctorId, parsedDate, token);
             return ResponseEntity.ok(Map.of("availability", availability));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid date format (expected yyyy-MM-dd)"));
@@ -51,9 +65,19 @@ public class DoctorController {
 
     /* ================================
        2) Get All Doctors
+       - optional ?fields=id,name,specialty (sparse response, see DoctorService.DOCTOR_FIELDS)
        ================================ */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getDoctors() {
+    public ResponseEntity<Map<String, Object>> getDoctors(@RequestParam(required = false) String fields) {
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, DoctorService.DOCTOR_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (!selection.isAll()) {
+            return ResponseEntity.ok(Map.of("doctors", doctorService.findDoctors(selection, null, null, null)));
+        }
         List<Doctor> doctors = doctorService.getDoctors();
         return ResponseEntity.ok(Map.of("doctors", doctors));
     }
@@ -90,6 +114,14 @@ public class DoctorController {
         return doctorService.validateDoctor(login);
     }
 
+    /* ================================
+       4b) Doctor Logout (revokes the token)
+       ================================ */
+    @PostMapping("/logout/{token}")
+    public ResponseEntity<Map<String, String>> doctorLogout(@PathVariable String token) {
+        return service.logout(token);
+    }
+
     /* ================================
        5) Update Doctor (Admin only)
        ================================ */
@@ -138,16 +170,87 @@ public class DoctorController {
         }
     }
 
+    /* ================================
+       6b) Doctor Deletion Progress (Admin only)
+       ================================ */
+    @GetMapping("/deletion/{id}/{token}")
+    public ResponseEntity<Map<String, Object>> getDeletionProgress(
+            @PathVariable long id,
+            @PathVariable String token) {
+
+        // Validate admin token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "admin");
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", "Unauthorized or invalid token"));
+        }
+
+        DoctorPurge progress = doctorPurgeService.getProgress(id);
+        if (progress == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "No deletion in progress for this doctor"));
+        }
+        return ResponseEntity.ok(Map.of("progress", progress));
+    }
+
     /* ================================
        7) Filter Doctors
+       - optional ?fields= as for Get All Doctors
        ================================ */
     @GetMapping("/filter/{name}/{time}/{speciality}")
     public ResponseEntity<Map<String, Object>> filterDoctors(
             @PathVariable String name,
             @PathVariable String time,
-            @PathVariable String speciality) {
+            @PathVariable String speciality,
+            @RequestParam(required = false) String fields) {
 
-        Map<String, Object> result = service.filterDoctor(name, speciality, time);
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, DoctorService.DOCTOR_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        Map<String, Object> result = service.filterDoctor(name, speciality, time, selection);
         return ResponseEntity.ok(result);
     }
+
+    /* ================================
+       8) Filter Facets (doctor counts per specialty and AM/PM)
+       - GET /doctor/facets?name=...
+       ================================ */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(@RequestParam(required = false) String name) {
+        return ResponseEntity.ok(doctorFacetService.getFacets(name));
+    }
+
+    /* ================================
+       9) Earliest Available Slots across doctors
+       - GET /doctor/next-available/{user}/{token}?specialty=..&doctorIds=1,2&days=14&count=3
+       ================================ */
+    @GetMapping("/next-available/{user}/{token}")
+    public ResponseEntity<Map<String, Object>> getNextAvailable(
+            @PathVariable String user,
+            @PathVariable String token,
+            @RequestParam(required = false) String specialty,
+            @RequestParam(required = false) List<Long> doctorIds,
+            @RequestParam(defaultValue = "14") int days,
+            @RequestParam(defaultValue = "3") int count) {
+
+        // Validate token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, user);
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", "Unauthorized or invalid token"));
+        }
+
+        boolean hasDoctors = doctorIds != null && !doctorIds.isEmpty();
+        if (!hasDoctors && (specialty == null || specialty.isBlank())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "specialty or doctorIds is required"));
+        }
+        if (days < 1 || days > 90 || count < 1 || count > 50) {
+            return ResponseEntity.badRequest().body(Map.of("error", "days must be 1-90 and count 1-50"));
+        }
+
+        return ResponseEntity.ok(Map.of("slots",
+                nextAvailableService.findNextAvailable(specialty, doctorIds, days, count)));
+    }
 }
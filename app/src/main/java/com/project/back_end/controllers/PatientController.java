@@ -10,7 +10,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Map;
 
 @RestController
-@RequestMapping("/patient")
+@RequestMapping("${api.path}" + "patient")
 public class PatientController {
 
     private final PatientService patientService;
@@ -41,15 +41,12 @@ public class PatientController {
        ================================ */
     @PostMapping
     public ResponseEntity<Map<String, String>> createPatient(@RequestBody Patient patient) {
-        // Check for duplicates
-        if (!service.validatePatient(patient)) {
-            return ResponseEntity.status(409)
-                    .body(Map.of("message", "Patient with email id or phone no already exist"));
-        }
-
         int result = patientService.createPatient(patient);
         if (result == 1) {
             return ResponseEntity.status(201).body(Map.of("message", "Signup successful"));
+        } else if (result == -1) {
+            return ResponseEntity.status(409)
+                    .body(Map.of("message", "Patient with email id or phone no already exist"));
         } else {
             return ResponseEntity.status(500).body(Map.of("message", "Internal server error"));
         }
@@ -63,6 +60,14 @@ public class PatientController {
         return service.validatePatientLogin(login);
     }
 
+    /* ================================
+       3b) Patient Logout (revokes the token)
+       ================================ */
+    @PostMapping("/logout/{token}")
+    public ResponseEntity<Map<String, String>> logout(@PathVariable String token) {
+        return service.logout(token);
+    }
+
     /* ================================
        4) Get Patient Appointments
        ================================ */
@@ -99,4 +104,24 @@ public class PatientController {
 
         return service.filterPatient(condition, name, token);
     }
+
+    /* ================================
+       6) Get Patient Medical History (appointments + prescriptions, paged)
+       ================================ */
+    @GetMapping("/history/{id}/{token}")
+    public ResponseEntity<Map<String, Object>> getPatientHistory(
+            @PathVariable Long id,
+            @PathVariable String token,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        // Validate token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "patient");
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", "Unauthorized or invalid token"));
+        }
+
+        return patientService.getPatientHistory(id, token, page, size);
+    }
 }
@@ -7,6 +7,7 @@ import com.project.back_end.services.AppointmentService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -67,4 +68,80 @@ public class PrescriptionController {
 
         return prescriptionService.getPrescription(appointmentId);
     }
+
+    /* ================================
+       3) Get Prescriptions for a page of appointments (Doctor only)
+       - GET /prescription/batch/{token}?appointmentIds=1,2,3
+       ================================ */
+    @GetMapping("/batch/{token}")
+    public ResponseEntity<Map<String, Object>> getPrescriptions(
+            @PathVariable String token,
+            @RequestParam List<Long> appointmentIds) {
+
+        // Validate doctor token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "doctor");
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", "Unauthorized or invalid token"));
+        }
+
+        return ResponseEntity.ok(Map.of("prescriptions",
+                prescriptionService.getPrescriptionsByAppointmentIds(appointmentIds)));
+    }
+
+    /* ================================
+       4) Save Prescriptions in bulk (Doctor only)
+       - POST /prescription/bulk/{token} with a JSON array of prescriptions
+       - token validated once, one Mongo bulk insert, then one status update
+         for the appointments whose prescription was saved
+       - 200 with a result per item (see PrescriptionService.savePrescriptions)
+       ================================ */
+    @PostMapping("/bulk/{token}")
+    public ResponseEntity<Map<String, Object>> savePrescriptions(
+            @PathVariable String token,
+            @RequestBody List<Prescription> prescriptions) {
+
+        // Validate doctor token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "doctor");
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", "Unauthorized or invalid token"));
+        }
+
+        ResponseEntity<Map<String, Object>> result = prescriptionService.savePrescriptions(prescriptions);
+
+        // Same as the single save: saved prescriptions mark their appointments completed (status = 1)
+        if (result.getStatusCode().is2xxSuccessful() && result.getBody() != null) {
+            List<Long> savedIds = ((List<?>) result.getBody().get("results")).stream()
+                    .map(r -> (Map<?, ?>) r)
+                    .filter(r -> Integer.valueOf(201).equals(r.get("status")))
+                    .map(r -> (Long) r.get("appointmentId"))
+                    .toList();
+            appointmentService.changeStatus(savedIds, 1);
+        }
+
+        return result;
+    }
+
+    /* ================================
+       5) Search Prescriptions by medication / notes (Doctor only)
+       - GET /prescription/search/{token}?q=amoxicillin&page=0&size=20
+       - answered from the prescriptions text index; each hit carries its appointment and patient ids
+       ================================ */
+    @GetMapping("/search/{token}")
+    public ResponseEntity<Map<String, Object>> searchPrescriptions(
+            @PathVariable String token,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        // Validate doctor token
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "doctor");
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", "Unauthorized or invalid token"));
+        }
+
+        return prescriptionService.searchPrescriptions(q, page, size);
+    }
 }
@@ -10,8 +10,12 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_appointment_status_time", columnList = "status, appointment_time")) // archive job
 public class Appointment {
 
+    // Used for rows booked before durations were stored
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -37,6 +41,10 @@ public class Appointment {
     @NotNull(message = "status is required")
     private Integer status;
 
+    // Visit length fixed at booking time (doctor's slot / visit duration)
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+
     // JPA requires a no-args constructor
     public Appointment() {}
 
@@ -51,7 +59,8 @@ public class Appointment {
 
     @Transient
     public LocalDateTime getEndTime() {
-        return appointmentTime != null ? appointmentTime.plusHours(1) : null;
+        if (appointmentTime == null) return null;
+        return appointmentTime.plusMinutes(durationMinutes != null ? durationMinutes : DEFAULT_DURATION_MINUTES);
     }
 
     @Transient
@@ -105,4 +114,12 @@ public class Appointment {
     public void setStatus(Integer status) {
         this.status = status;
     }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
 }
@@ -0,0 +1,55 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Completed appointment moved out of the live `appointment` table by AppointmentArchiveService.
+ * Keeps the original id, so prescriptions (Mongo, keyed by appointmentId) still match.
+ */
+@Entity
+@Table(name = "appointment_archive", indexes = {
+        @Index(name = "idx_archive_patient_time", columnList = "patient_id, appointment_time"),
+        @Index(name = "idx_archive_doctor_time", columnList = "doctor_id, appointment_time")
+})
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "doctor_id")
+    private Doctor doctor;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "patient_id")
+    private Patient patient;
+
+    private LocalDateTime appointmentTime;
+
+    private Integer status;
+
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+
+    private LocalDateTime archivedAt;
+
+    // JPA requires a no-args constructor
+    public ArchivedAppointment() {}
+
+    // ----- Getters -----
+    public Long getId() { return id; }
+
+    public Doctor getDoctor() { return doctor; }
+
+    public Patient getPatient() { return patient; }
+
+    public LocalDateTime getAppointmentTime() { return appointmentTime; }
+
+    public Integer getStatus() { return status; }
+
+    public Integer getDurationMinutes() { return durationMinutes; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -1,12 +1,20 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
 import jakarta.validation.constraints.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_doctor_email", columnNames = "email"),
+       indexes = {
+               @Index(name = "idx_doctor_specialty_name_search", columnList = "specialty_search, name_search"),
+               @Index(name = "idx_doctor_name_search", columnList = "name_search")
+       })
+@SQLRestriction("deleted = false") // soft-deleted doctors are invisible to JPA queries
 public class Doctor {
 
     @Id
@@ -39,6 +47,26 @@ public class Doctor {
     @Column(name = "available_times")
     private List<String> availableTimes = new ArrayList<>();
 
+    // Visit length in minutes for "HH:mm" slots; null → appointments.default-visit-minutes
+    @Min(value = 5, message = "visitMinutes must be at least 5")
+    @Max(value = 480, message = "visitMinutes must be at most 480")
+    @Column(name = "visit_minutes")
+    private Integer visitMinutes;
+
+    // Normalized copies for indexed case/accent-insensitive search (maintained on save)
+    @JsonIgnore
+    @Column(name = "name_search", length = 100)
+    private String nameSearch;
+
+    @JsonIgnore
+    @Column(name = "specialty_search", length = 50)
+    private String specialtySearch;
+
+    // Soft-delete flag; the row and its history are purged later in batches (DoctorPurgeService)
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean deleted = false;
+
     // ----- Constructors -----
     public Doctor() {}
 
@@ -50,6 +78,14 @@ public class Doctor {
         this.phone = phone;
     }
 
+    // ----- Lifecycle -----
+    @PrePersist
+    @PreUpdate
+    public void refreshSearchColumns() {
+        this.nameSearch = SearchNormalizer.normalize(name);
+        this.specialtySearch = SearchNormalizer.normalize(specialty);
+    }
+
     // ----- Getters & Setters -----
     public Long getId() { return id; }
 
@@ -78,4 +114,16 @@ public class Doctor {
     public List<String> getAvailableTimes() { return availableTimes; }
 
     public void setAvailableTimes(List<String> availableTimes) { this.availableTimes = availableTimes; }
+
+    public Integer getVisitMinutes() { return visitMinutes; }
+
+    public void setVisitMinutes(Integer visitMinutes) { this.visitMinutes = visitMinutes; }
+
+    public String getNameSearch() { return nameSearch; }
+
+    public String getSpecialtySearch() { return specialtySearch; }
+
+    public boolean isDeleted() { return deleted; }
+
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
 }
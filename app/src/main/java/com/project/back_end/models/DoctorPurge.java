@@ -0,0 +1,73 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a doctor's background purge (see DoctorPurgeService).
+ * - written with state PENDING when the doctor is soft-deleted, so progress is visible
+ *   on every node before the first sweep; updated after each batch
+ * - kept after the doctor row is gone (state DONE), then pruned after the retention period
+ */
+@Entity
+@Table(name = "doctor_purge", indexes = @Index(name = "idx_doctor_purge_state_updated", columnList = "state, updated_at"))
+public class DoctorPurge {
+
+    public static final String PENDING = "PENDING";
+    public static final String PURGING = "PURGING";
+    public static final String RETRYING = "RETRYING";
+    public static final String DONE = "DONE";
+
+    @Id
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @Column(nullable = false, length = 16)
+    private String state = PENDING;
+
+    @Column(name = "appointments_deleted", nullable = false)
+    private long appointmentsDeleted;
+
+    @Column(name = "prescriptions_deleted", nullable = false)
+    private long prescriptionsDeleted;
+
+    @Column(nullable = false)
+    private int batches;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // JPA requires a no-args constructor
+    public DoctorPurge() {}
+
+    public DoctorPurge(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    // One batch of appointments (and their prescriptions) removed
+    public void batchDone(long appointments, long prescriptions) {
+        this.appointmentsDeleted += appointments;
+        this.prescriptionsDeleted += prescriptions;
+        this.batches++;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void setState(String state) {
+        this.state = state;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // ----- Getters -----
+    public Long getDoctorId() { return doctorId; }
+
+    public String getState() { return state; }
+
+    public long getAppointmentsDeleted() { return appointmentsDeleted; }
+
+    public long getPrescriptionsDeleted() { return prescriptionsDeleted; }
+
+    public int getBatches() { return batches; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
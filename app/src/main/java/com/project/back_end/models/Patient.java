@@ -1,10 +1,15 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
 @Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_patient_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_patient_phone", columnNames = "phone")
+}, indexes = @Index(name = "idx_patient_name_search", columnList = "name_search"))
 public class Patient {
 
     @Id
@@ -32,6 +37,11 @@ public class Patient {
     @Size(max = 255, message = "address must be at most 255 characters")
     private String address;
 
+    // Normalized copy of name for indexed case/accent-insensitive search (maintained on save)
+    @JsonIgnore
+    @Column(name = "name_search", length = 100)
+    private String nameSearch;
+
     // ----- Constructors -----
     public Patient() {}
 
@@ -43,6 +53,13 @@ public class Patient {
         this.address = address;
     }
 
+    // ----- Lifecycle -----
+    @PrePersist
+    @PreUpdate
+    public void refreshSearchColumns() {
+        this.nameSearch = SearchNormalizer.normalize(name);
+    }
+
     // ----- Getters & Setters -----
     public Long getId() { return id; }
 
@@ -67,4 +84,6 @@ public class Patient {
     public String getAddress() { return address; }
 
     public void setAddress(String address) { this.address = address; }
+
+    public String getNameSearch() { return nameSearch; }
 }
@@ -1,6 +1,8 @@
 package com.project.back_end.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -16,10 +18,12 @@ public class Prescription {
     private String patientName;
 
     @NotNull(message = "appointmentId cannot be null")
+    @Indexed(name = "appointmentId_unique", unique = true)  // one prescription per appointment
     private Long appointmentId;
 
     @NotNull(message = "medication cannot be null")
     @Size(min = 3, max = 100, message = "medication must be between 3 and 100 characters")
+    @TextIndexed(weight = 3)  // text index over medication + doctorNotes (medication search)
     private String medication;
 
     @NotNull(message = "dosage cannot be null")
@@ -27,6 +31,7 @@ public class Prescription {
     private String dosage;
 
     @Size(max = 200, message = "doctorNotes must be at most 200 characters")
+    @TextIndexed
     private String doctorNotes;
 
     // ----- Constructors -----
@@ -0,0 +1,58 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revocation list entry (see TokenRevocationService).
+ * - tokenKey = the token's jti, or "sub:" + identifier to revoke every token of a user
+ *   issued before revokedAt (logout everywhere, password change, doctor deletion)
+ * - expiresAt = when the revoked token(s) would have expired anyway; pruned after that
+ */
+@Entity
+@Table(name = "revoked_token", indexes = {
+        @Index(name = "idx_revoked_token_key", columnList = "token_key"),
+        @Index(name = "idx_revoked_token_expires", columnList = "expires_at"),
+        @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    public static final String SUBJECT_PREFIX = "sub:";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_key", nullable = false, length = 120)
+    private String tokenKey;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // JPA requires a no-args constructor
+    public RevokedToken() {}
+
+    public RevokedToken(String tokenKey, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        this.tokenKey = tokenKey;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // ----- Getters -----
+    public Long getId() { return id; }
+
+    public String getTokenKey() { return tokenKey; }
+
+    public LocalDateTime getRevokedAt() { return revokedAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+
+    @Transient
+    public boolean isSubject() {
+        return tokenKey != null && tokenKey.startsWith(SUBJECT_PREFIX);
+    }
+}
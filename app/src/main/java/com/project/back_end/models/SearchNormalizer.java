@@ -0,0 +1,37 @@
+package com.project.back_end.models;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normal form for the persisted *_search columns: trimmed, accent-folded, lower-case.
+ * Applied on save (entity callbacks) and to query parameters, so lookups compare
+ * plain indexed columns instead of LOWER(...) expressions.
+ */
+public final class SearchNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Pattern LIKE_SPECIAL = Pattern.compile("[\\\\%_]");
+
+    private SearchNormalizer() {}
+
+    public static String normalize(String raw) {
+        if (raw == null) return null;
+        String folded = MARKS.matcher(Normalizer.normalize(raw, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(folded.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    // Same as normalize, but never null (for equality parameters)
+    public static String param(String raw) {
+        String n = normalize(raw);
+        return n == null ? "" : n;
+    }
+
+    // param with the LIKE wildcards escaped, for "LIKE CONCAT(:p, '%') ESCAPE '\'" prefix queries:
+    // user input matches literally and always leaves a prefix the index can range-scan
+    public static String likePrefix(String raw) {
+        return LIKE_SPECIAL.matcher(param(raw)).replaceAll("\\\\$0");
+    }
+}
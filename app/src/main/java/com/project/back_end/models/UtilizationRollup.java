@@ -0,0 +1,80 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Appointment counters per doctor and period ('D' = day, 'M' = month starting at periodStart).
+ * Maintained incrementally by AppointmentService (UtilizationService), rebuilt by its reconcile job.
+ * - booked: appointments currently on the books (live + archived)
+ * - completed: of those, status = 1
+ * - cancelled: cancellations (only recorded here; appointments are deleted on cancel)
+ */
+@Entity
+@Table(name = "utilization_rollup",
+       indexes = @Index(name = "idx_rollup_period_start",
+                        columnList = "period, period_start, doctor_id, booked, completed, cancelled"))
+@IdClass(UtilizationRollup.Key.class)
+public class UtilizationRollup {
+
+    @Id
+    @Column(length = 1)
+    private String period;
+
+    @Id
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    @Id
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    private int booked;
+
+    private int completed;
+
+    private int cancelled;
+
+    // JPA requires a no-args constructor
+    public UtilizationRollup() {}
+
+    // ----- Getters -----
+    public String getPeriod() { return period; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+
+    public Long getDoctorId() { return doctorId; }
+
+    public int getBooked() { return booked; }
+
+    public int getCompleted() { return completed; }
+
+    public int getCancelled() { return cancelled; }
+
+    // ----- Composite key -----
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String period;
+        private LocalDate periodStart;
+        private Long doctorId;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return Objects.equals(period, k.period) && Objects.equals(periodStart, k.periodStart)
+                    && Objects.equals(doctorId, k.doctorId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(period, periodStart, doctorId);
+        }
+    }
+}
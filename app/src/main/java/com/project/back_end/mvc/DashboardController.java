@@ -1,30 +1,74 @@
 package com.project.back_end.mvc;
 
-public class DashboardController {
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.FieldSelection;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.Service;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
-// 1. Set Up the MVC Controller Class:
-//    - Annotate the class with `@Controller` to indicate that it serves as an MVC controller returning view names (not JSON).
-//    - This class handles routing to admin and doctor dashboard pages based on token validation.
+@Controller
+public class DashboardController {
 
+    // Columns of the doctor's patient table (same as APPOINTMENT_LIST_FIELDS in appointmentRecordService.js)
+    private static final String APPOINTMENT_ROW_FIELDS = "id,doctorId,patientId,patientName,patientEmail,patientPhone";
 
-// 2. Autowire the Shared Service:
-//    - Inject the common `Service` class, which provides the token validation logic used to authorize access to dashboards.
+    private final Service service;
+    private final AppointmentService appointmentService;
+    private final DashboardFragments fragments;
 
+    public DashboardController(Service service,
+                               AppointmentService appointmentService,
+                               DashboardFragments fragments) {
+        this.service = service;
+        this.appointmentService = appointmentService;
+        this.fragments = fragments;
+    }
 
-// 3. Define the `adminDashboard` Method:
-//    - Handles HTTP GET requests to `/adminDashboard/{token}`.
-//    - Accepts an admin's token as a path variable.
-//    - Validates the token using the shared service for the `"admin"` role.
-//    - If the token is valid (i.e., no errors returned), forwards the user to the `"admin/adminDashboard"` view.
-//    - If invalid, redirects to the root URL, likely the login or home page.
+    /* ================================
+       1) Admin Dashboard
+       - first page of doctor cards rendered into the page (cached, see DashboardFragments)
+       - the same rows are inlined for adminDashboard.js, which fetches the rest only if hasMore
+       ================================ */
+    @GetMapping("/adminDashboard/{token}")
+    public String adminDashboard(@PathVariable String token, Model model) {
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "admin");
+        if (validation.getStatusCode().isError()) {
+            return "redirect:/";
+        }
 
+        DashboardFragments.DoctorGrid grid = fragments.doctorGrid();
+        model.addAttribute("doctorGrid", grid.html());
+        model.addAttribute("initialDoctors", Map.of("doctors", grid.doctors(), "hasMore", grid.hasMore()));
+        return "admin/adminDashboard";
+    }
 
-// 4. Define the `doctorDashboard` Method:
-//    - Handles HTTP GET requests to `/doctorDashboard/{token}`.
-//    - Accepts a doctor's token as a path variable.
-//    - Validates the token using the shared service for the `"doctor"` role.
-//    - If the token is valid, forwards the user to the `"doctor/doctorDashboard"` view.
-//    - If the token is invalid, redirects to the root URL.
+    /* ================================
+       2) Doctor Dashboard
+       - today's appointments rendered into the table (fragments/dashboard :: patientRow)
+       - inlined for doctorDashboard.js, which only fetches when the date or search changes
+       ================================ */
+    @GetMapping("/doctorDashboard/{token}")
+    public String doctorDashboard(@PathVariable String token, Model model) {
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "doctor");
+        if (validation.getStatusCode().isError()) {
+            return "redirect:/";
+        }
 
+        LocalDate today = LocalDate.now();
+        Map<String, Object> result = appointmentService.getAppointment(null, today, token,
+                FieldSelection.parse(APPOINTMENT_ROW_FIELDS, AppointmentDTO.FIELDS));
+        Object appointments = result.getOrDefault("appointments", List.of());
 
+        model.addAttribute("appointments", appointments);
+        model.addAttribute("initialAppointments", Map.of("date", today.toString(), "appointments", appointments));
+        return "doctor/doctorDashboard";
+    }
 }
@@ -0,0 +1,77 @@
+package com.project.back_end.mvc;
+
+import com.project.back_end.DTO.DoctorEvent;
+import com.project.back_end.DTO.FieldSelection;
+import com.project.back_end.services.DoctorService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-rendered pieces of the dashboards that are the same for every viewer.
+ * The admin doctor grid (first page of cards) is rendered once from templates/fragments/dashboard.html
+ * and reused until a doctor is saved or deleted on this node, or the ttl passes (changes made on
+ * other nodes).
+ */
+@Component
+public class DashboardFragments {
+
+    // Fields the doctor cards use (doctorCard.js)
+    static final String DOCTOR_CARD_FIELDS = "id,name,specialty,email,availableTimes";
+
+    private final DoctorService doctorService;
+    private final SpringTemplateEngine templateEngine;
+    private final int firstPageSize;
+    private final long ttlMs;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile DoctorGrid doctorGrid;
+
+    public DashboardFragments(DoctorService doctorService,
+                              SpringTemplateEngine templateEngine,
+                              @Value("${dashboard.first-page-size:24}") int firstPageSize,
+                              @Value("${dashboard.doctor-grid.ttl-seconds:60}") long ttlSeconds) {
+        this.doctorService = doctorService;
+        this.templateEngine = templateEngine;
+        this.firstPageSize = firstPageSize;
+        this.ttlMs = ttlSeconds * 1000;
+    }
+
+    // First page of doctors: rows (inlined as JSON for the page script) + rendered card markup
+    public record DoctorGrid(List<Map<String, Object>> doctors, boolean hasMore, String html, long builtAt) {}
+
+    /* ==== 1) admin doctor grid ==== */
+    public DoctorGrid doctorGrid() {
+        DoctorGrid grid = doctorGrid;
+        if (grid != null && System.currentTimeMillis() - grid.builtAt() < ttlMs) return grid;
+
+        long seen = version.get();
+        List<Map<String, Object>> rows = doctorService.findDoctors(
+                FieldSelection.parse(DOCTOR_CARD_FIELDS, DoctorService.DOCTOR_FIELDS), null, null, null, firstPageSize + 1);
+        boolean hasMore = rows.size() > firstPageSize;
+        List<Map<String, Object>> doctors = hasMore ? List.copyOf(rows.subList(0, firstPageSize)) : List.copyOf(rows);
+
+        Context context = new Context();
+        context.setVariable("doctors", doctors);
+        String html = templateEngine.process("fragments/dashboard", Set.of("doctorGrid"), context);
+
+        grid = new DoctorGrid(doctors, hasMore, html, System.currentTimeMillis());
+        // a doctor changed while rendering: serve this copy but build again next time
+        if (version.get() == seen) doctorGrid = grid;
+        return grid;
+    }
+
+    /* ==== 2) invalidation (after commit) ==== */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorEvent(DoctorEvent event) {
+        version.incrementAndGet();
+        doctorGrid = null;
+    }
+}
@@ -1,7 +1,12 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.BookedInterval;
 import com.project.back_end.models.Appointment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,10 +14,11 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentRepositoryCustom {
 
     // 1) Appointments for a doctor in a time window (fetch doctor/patient and optionally doctor availability)
     @Query("""
@@ -20,7 +26,7 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            FROM Appointment a
            LEFT JOIN FETCH a.doctor d
            LEFT JOIN FETCH a.patient p
-           LEFT JOIN FETCH d.availableTimes at   -- remove this line if you don't keep availability on Doctor
+           LEFT JOIN FETCH d.availableTimes at
            WHERE d.id = :doctorId
              AND a.appointmentTime BETWEEN :start AND :end
            ORDER BY a.appointmentTime ASC
@@ -29,18 +35,42 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
                                                               @Param("start") LocalDateTime start,
                                                               @Param("end") LocalDateTime end);
 
-    // 2) Appointments by doctor + patient name (case-insensitive) in time window
+    // 1b) Booked intervals for a doctor-day, no joins (AppointmentIntervalIndex load)
+    @Query("""
+           SELECT new com.project.back_end.DTO.BookedInterval(a.id, a.appointmentTime, a.durationMinutes)
+           FROM Appointment a
+           WHERE a.doctor.id = :doctorId
+             AND a.appointmentTime >= :start AND a.appointmentTime < :end
+           """)
+    List<BookedInterval> findIntervalsByDoctorIdAndDay(@Param("doctorId") Long doctorId,
+                                                       @Param("start") LocalDateTime start,
+                                                       @Param("end") LocalDateTime end);
+
+    // 1c) Same as 1b as a locking read (FOR UPDATE): sees rows committed after this transaction's snapshot.
+    //     Booking re-check, called with the doctor row locked (DoctorRepository.lockById)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+           SELECT new com.project.back_end.DTO.BookedInterval(a.id, a.appointmentTime, a.durationMinutes)
+           FROM Appointment a
+           WHERE a.doctor.id = :doctorId
+             AND a.appointmentTime >= :start AND a.appointmentTime < :end
+           """)
+    List<BookedInterval> lockIntervalsByDoctorIdBetween(@Param("doctorId") Long doctorId,
+                                                        @Param("start") LocalDateTime start,
+                                                        @Param("end") LocalDateTime end);
+
+    // 2) Appointments by doctor + patient name prefix (normalized, see SearchNormalizer) in time window
     @Query("""
            SELECT DISTINCT a
            FROM Appointment a
            LEFT JOIN FETCH a.doctor d
            LEFT JOIN FETCH a.patient p
            WHERE d.id = :doctorId
-             AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))
+             AND p.nameSearch LIKE CONCAT(:patientName, '%') ESCAPE '\\'
              AND a.appointmentTime BETWEEN :start AND :end
            ORDER BY a.appointmentTime ASC
            """)
-    List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+    List<Appointment> findByDoctorIdAndPatientNamePrefixAndAppointmentTimeBetween(
             @Param("doctorId") Long doctorId,
             @Param("patientName") String patientName,
             @Param("start") LocalDateTime start,
@@ -59,20 +89,20 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     // 5) Appointments for a patient by status, ordered by time
     List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
 
-    // 6) Filter by (partial) doctor name + patient id
+    // 6) Filter by doctor name prefix (normalized) + patient id
     @Query("""
            SELECT a
            FROM Appointment a
            JOIN a.doctor d
            JOIN a.patient p
            WHERE p.id = :patientId
-             AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))
+             AND d.nameSearch LIKE CONCAT(:doctorName, '%') ESCAPE '\\'
            ORDER BY a.appointmentTime ASC
            """)
     List<Appointment> filterByDoctorNameAndPatientId(@Param("doctorName") String doctorName,
                                                      @Param("patientId") Long patientId);
 
-    // 7) Filter by (partial) doctor name + patient id + status
+    // 7) Filter by doctor name prefix (normalized) + patient id + status
     @Query("""
            SELECT a
            FROM Appointment a
@@ -80,7 +110,7 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            JOIN a.patient p
            WHERE p.id = :patientId
              AND a.status = :status
-             AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))
+             AND d.nameSearch LIKE CONCAT(:doctorName, '%') ESCAPE '\\'
            ORDER BY a.appointmentTime ASC
            """)
     List<Appointment> filterByDoctorNameAndPatientIdAndStatus(@Param("doctorName") String doctorName,
@@ -92,4 +122,51 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Transactional
     @Query("UPDATE Appointment a SET a.status = :status WHERE a.id = :id")
     void updateStatus(@Param("status") int status, @Param("id") long id);
+
+    // 8b) Update status for a set of ids in one statement (bulk prescriptions)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.status = :status WHERE a.id IN :ids")
+    int updateStatusByIdIn(@Param("status") int status, @Param("ids") Collection<Long> ids);
+
+    // 9) Page of a patient's appointment ids, newest first (drives the history view)
+    @Query(value = """
+           SELECT a.id
+           FROM Appointment a
+           WHERE a.patient.id = :patientId
+           ORDER BY a.appointmentTime DESC
+           """,
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.patient.id = :patientId")
+    Page<Long> findIdsByPatientId(@Param("patientId") Long patientId, Pageable pageable);
+
+    // 10) Load a set of appointments with doctor + patient in one query
+    @Query("""
+           SELECT a
+           FROM Appointment a
+           JOIN FETCH a.doctor d
+           JOIN FETCH a.patient p
+           WHERE a.id IN :ids
+           """)
+    List<Appointment> findAllWithDoctorAndPatientByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 11) Bounded batch of a doctor's appointment ids (background purge)
+    @Query(value = "SELECT id FROM appointment WHERE doctor_id = :doctorId LIMIT :limit", nativeQuery = true)
+    List<Long> findIdBatchByDoctorId(@Param("doctorId") Long doctorId, @Param("limit") int limit);
+
+    // 12) Completed appointments older than the cutoff, oldest first (archive job)
+    @Query(value = """
+           SELECT id
+           FROM appointment
+           WHERE status = 1
+             AND appointment_time < :cutoff
+           ORDER BY appointment_time ASC
+           LIMIT :limit
+           """, nativeQuery = true)
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // 13) Delete a batch of appointments by id (short transaction per batch)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Appointment a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,15 @@
+package com.project.back_end.repo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Projection queries for sparse appointment lists (see AppointmentService.getAppointment)
+public interface AppointmentRepositoryCustom {
+
+    // Only the given columns of a doctor's appointments in [start, end], ordered by time;
+    // patientName (normalized prefix) is optional. Column names: see AppointmentRepositoryCustomImpl
+    List<Map<String, Object>> findProjected(Collection<String> columns, Long doctorId,
+                                            LocalDateTime start, LocalDateTime end, String patientName);
+}
@@ -0,0 +1,67 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class AppointmentRepositoryCustomImpl implements AppointmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findProjected(Collection<String> columns, Long doctorId,
+                                                   LocalDateTime start, LocalDateTime end, String patientName) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Appointment> a = query.from(Appointment.class);
+
+        // joins only when a column (or the name filter) needs them; ids come from the FK columns
+        Join<Appointment, Doctor> d = null;
+        Join<Appointment, Patient> p = null;
+        boolean needPatient = patientName != null
+                || columns.stream().anyMatch(c -> c.startsWith("patient") && !c.equals("patientId"));
+        if (columns.contains("doctorName")) d = a.join("doctor");
+        if (needPatient) p = a.join("patient");
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String column : columns) {
+            Path<?> path = switch (column) {
+                case "id", "appointmentTime", "durationMinutes", "status" -> a.get(column);
+                case "doctorId" -> a.get("doctor").get("id");
+                case "doctorName" -> d.get("name");
+                case "patientId" -> a.get("patient").get("id");
+                case "patientName" -> p.get("name");
+                case "patientEmail" -> p.get("email");
+                case "patientPhone" -> p.get("phone");
+                case "patientAddress" -> p.get("address");
+                default -> throw new IllegalArgumentException("Unknown column " + column);
+            };
+            selections.add(path.alias(column));
+        }
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(a.get("doctor").get("id"), doctorId));
+        where.add(cb.between(a.get("appointmentTime"), start, end));
+        if (patientName != null) where.add(cb.like(p.get("nameSearch"), patientName + "%", '\\'));
+
+        query.multiselect(selections)
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.asc(a.get("appointmentTime")));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple t : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String column : columns) row.put(column, t.get(column));
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,82 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.ArchivedAppointment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    // 1) Copy a batch of live appointments into the archive (same ids); caller deletes the originals
+    @Modifying
+    @Query(value = """
+           INSERT INTO appointment_archive (id, doctor_id, patient_id, appointment_time, status, duration_minutes, archived_at)
+           SELECT id, doctor_id, patient_id, appointment_time, status, duration_minutes, NOW()
+           FROM appointment
+           WHERE id IN (:ids)
+           """, nativeQuery = true)
+    int copyFromAppointments(@Param("ids") Collection<Long> ids);
+
+    // 2) A slice of a patient's archived ids, newest first (offset/limit continue after the live rows)
+    @Query(value = """
+           SELECT id
+           FROM appointment_archive
+           WHERE patient_id = :patientId
+           ORDER BY appointment_time DESC
+           LIMIT :limit OFFSET :offset
+           """, nativeQuery = true)
+    List<Long> findIdSliceByPatientId(@Param("patientId") Long patientId,
+                                      @Param("offset") long offset,
+                                      @Param("limit") int limit);
+
+    // 3) Load archived rows with doctor + patient in one query
+    @Query("""
+           SELECT a
+           FROM ArchivedAppointment a
+           JOIN FETCH a.doctor d
+           JOIN FETCH a.patient p
+           WHERE a.id IN :ids
+           """)
+    List<ArchivedAppointment> findAllWithDoctorAndPatientByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 3b) All archived rows of a patient with doctor + patient, oldest first (appointment lists)
+    @Query("""
+           SELECT a
+           FROM ArchivedAppointment a
+           JOIN FETCH a.doctor d
+           JOIN FETCH a.patient p
+           WHERE p.id = :patientId
+           ORDER BY a.appointmentTime ASC
+           """)
+    List<ArchivedAppointment> findByPatientIdWithDoctor(@Param("patientId") Long patientId);
+
+    // 3c) Archived rows of a patient by doctor name prefix (normalized, see SearchNormalizer)
+    @Query("""
+           SELECT a
+           FROM ArchivedAppointment a
+           JOIN FETCH a.doctor d
+           JOIN FETCH a.patient p
+           WHERE p.id = :patientId
+             AND d.nameSearch LIKE CONCAT(:doctorName, '%') ESCAPE '\\'
+           ORDER BY a.appointmentTime ASC
+           """)
+    List<ArchivedAppointment> filterByDoctorNameAndPatientId(@Param("doctorName") String doctorName,
+                                                             @Param("patientId") Long patientId);
+
+    // 4) Bounded batch of a doctor's archived ids (doctor purge)
+    @Query(value = "SELECT id FROM appointment_archive WHERE doctor_id = :doctorId LIMIT :limit", nativeQuery = true)
+    List<Long> findIdBatchByDoctorId(@Param("doctorId") Long doctorId, @Param("limit") int limit);
+
+    // 5) Delete a batch of archived rows by id
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArchivedAppointment a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,21 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.DoctorPurge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface DoctorPurgeRepository extends JpaRepository<DoctorPurge, Long> {
+
+    // Evict progress of purges that finished before the cutoff
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DoctorPurge p WHERE p.state = 'DONE' AND p.updatedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,37 +1,86 @@
 package com.project.back_end.repo;
 
 import com.project.back_end.models.Doctor;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+public interface DoctorRepository extends JpaRepository<Doctor, Long>, DoctorRepositoryCustom {
 
     // 1) Find by email (exact match)
     Doctor findByEmail(String email);
 
-    // 2) Partial name match using LIKE + CONCAT
+    // Search methods below compare the normalized *_search columns (see SearchNormalizer);
+    // callers pass SearchNormalizer.param(...) values, likePrefix(...) for the LIKE name prefix (wildcards
+    // escaped with '\'). Name matching is by prefix (index range scan).
+
+    // 2) Name prefix match
     @Query("""
            SELECT d
            FROM Doctor d
-           WHERE d.name LIKE CONCAT('%', :name, '%')
+           WHERE d.nameSearch LIKE CONCAT(:name, '%') ESCAPE '\\'
            """)
-    List<Doctor> findByNameLike(@Param("name") String name);
+    List<Doctor> findByNamePrefix(@Param("name") String name);
 
-    // 3) Partial name (case-insensitive) + exact specialty (case-insensitive)
+    // 3) Name prefix (case/accent-insensitive) + exact specialty (case/accent-insensitive)
     @Query("""
            SELECT d
            FROM Doctor d
-           WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%'))
-             AND LOWER(d.specialty) = LOWER(:specialty)
+           WHERE d.specialtySearch = :specialty
+             AND d.nameSearch LIKE CONCAT(:name, '%') ESCAPE '\\'
            """)
-    List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(@Param("name") String name,
-                                                                      @Param("specialty") String specialty);
+    List<Doctor> findByNamePrefixAndSpecialty(@Param("name") String name,
+                                              @Param("specialty") String specialty);
+
+    // 4) Find by specialty (case/accent-insensitive)
+    @Query("SELECT d FROM Doctor d WHERE d.specialtySearch = :specialty")
+    List<Doctor> findBySpecialtyIgnoreCase(@Param("specialty") String specialty);
+
+    // Backfill of rows saved before the *_search columns existed
+    List<Doctor> findTop500ByNameSearchIsNull();
+
+    // 5) Soft delete (hides the doctor immediately; history is purged in the background)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Doctor d SET d.deleted = true WHERE d.id = :id")
+    int markDeleted(@Param("id") Long id);
+
+    // 6) Soft-deleted doctors still waiting for purge (native: bypasses the deleted restriction)
+    @Query(value = "SELECT id FROM doctor WHERE deleted = true", nativeQuery = true)
+    List<Long> findDeletedIds();
+
+    // 7) Final hard delete once appointments/prescriptions are gone
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM doctor_available_times WHERE doctor_id = :id", nativeQuery = true)
+    void purgeAvailableTimes(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM doctor WHERE id = :id AND deleted = true", nativeQuery = true)
+    int purgeDeleted(@Param("id") Long id);
+
+    // 8) Facet rebuild: one row per (doctor, slot) as {id, name, specialty, slot}; slot null for
+    //    doctors without availability. Single query, no entity/collection loading.
+    @Query("SELECT d.id, d.name, d.specialty, t FROM Doctor d LEFT JOIN d.availableTimes t")
+    List<Object[]> findFacetRows();
+
+    // 9) Utilization: {id, name, specialty, number of available slots} per doctor, counted in SQL
+    @Query("SELECT d.id, d.name, d.specialty, SIZE(d.availableTimes) FROM Doctor d")
+    List<Object[]> findSlotCounts();
 
-    // 4) Find by specialty, ignoring case
-    List<Doctor> findBySpecialtyIgnoreCase(String specialty);
+    // 10) SELECT ... FOR UPDATE on the doctor row: serializes bookings of one doctor across nodes
+    //     until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+    Optional<Doctor> lockById(@Param("id") Long id);
 }
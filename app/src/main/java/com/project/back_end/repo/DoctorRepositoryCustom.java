@@ -0,0 +1,18 @@
+package com.project.back_end.repo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Projection queries for sparse doctor lists (see DoctorService.findDoctors)
+public interface DoctorRepositoryCustom {
+
+    // Only the given scalar columns, filtered like the search methods (null filter = not applied)
+    List<Map<String, Object>> findProjected(Collection<String> columns, String name, String specialty);
+
+    // Same, first maxResults rows ordered by name (maxResults <= 0: all rows)
+    List<Map<String, Object>> findProjected(Collection<String> columns, String name, String specialty, int maxResults);
+
+    // availableTimes for a set of doctors, without loading the entities
+    Map<Long, List<String>> findAvailableTimes(Collection<Long> doctorIds);
+}
@@ -0,0 +1,67 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Doctor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+
+import java.util.*;
+
+public class DoctorRepositoryCustomImpl implements DoctorRepositoryCustom {
+
+    private static final int IN_CHUNK = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findProjected(Collection<String> columns, String name, String specialty) {
+        return findProjected(columns, name, specialty, 0);
+    }
+
+    @Override
+    public List<Map<String, Object>> findProjected(Collection<String> columns, String name, String specialty, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Doctor> d = query.from(Doctor.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String column : columns) selections.add(d.get(column).alias(column));
+
+        List<Predicate> where = new ArrayList<>();
+        if (name != null) where.add(cb.like(d.get("nameSearch"), name + "%", '\\'));
+        if (specialty != null) where.add(cb.equal(d.get("specialtySearch"), specialty));
+
+        query.multiselect(selections).where(where.toArray(Predicate[]::new));
+        if (maxResults > 0) query.orderBy(cb.asc(d.get("name")), cb.asc(d.get("id")));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (maxResults > 0) typed.setMaxResults(maxResults);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple t : typed.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String column : columns) row.put(column, t.get(column));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public Map<Long, List<String>> findAvailableTimes(Collection<Long> doctorIds) {
+        Map<Long, List<String>> times = new HashMap<>();
+        List<Long> ids = new ArrayList<>(doctorIds);
+        for (int i = 0; i < ids.size(); i += IN_CHUNK) {
+            List<Object[]> rows = entityManager.createQuery(
+                            "SELECT d.id, t FROM Doctor d JOIN d.availableTimes t WHERE d.id IN :ids", Object[].class)
+                    .setParameter("ids", ids.subList(i, Math.min(i + IN_CHUNK, ids.size())))
+                    .getResultList();
+            for (Object[] r : rows) {
+                times.computeIfAbsent((Long) r[0], k -> new ArrayList<>()).add((String) r[1]);
+            }
+        }
+        return times;
+    }
+}
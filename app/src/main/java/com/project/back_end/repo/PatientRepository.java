@@ -4,6 +4,8 @@ import com.project.back_end.models.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
 
@@ -12,6 +14,9 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     // Find a patient by email OR phone
     Patient findByEmailOrPhone(String email, String phone);
+
+    // Backfill of rows saved before name_search existed
+    List<Patient> findTop500ByNameSearchIsNull();
 }
 
 
@@ -2,8 +2,10 @@ package com.project.back_end.repo;
 
 import com.project.back_end.models.Prescription;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,6 +13,14 @@ public interface PrescriptionRepository extends MongoRepository<Prescription, St
 
     // Find prescriptions by appointment ID
     List<Prescription> findByAppointmentId(Long appointmentId);
+
+    // Batch lookup for a page of appointments: one $in query, projected to the fields history screens show
+    @Query(value = "{ 'appointmentId': { $in: ?0 } }",
+           fields = "{ 'appointmentId': 1, 'medication': 1, 'dosage': 1, 'doctorNotes': 1 }")
+    List<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds);
+
+    // Remove prescriptions of purged appointments
+    long deleteByAppointmentIdIn(Collection<Long> appointmentIds);
 }
 
 
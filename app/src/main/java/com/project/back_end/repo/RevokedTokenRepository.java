@@ -0,0 +1,32 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    // 1) Bloom-filter "maybe" → confirm
+    boolean existsByTokenKey(String tokenKey);
+
+    // 2) All unexpired entries, paged by id (full load)
+    List<RevokedToken> findTop5000ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(Long id, LocalDateTime now);
+
+    // 2b) Unexpired entries revoked since a point in time (this node or others), paged by id (refresh)
+    List<RevokedToken> findTop5000ByRevokedAtGreaterThanEqualAndIdGreaterThanAndExpiresAtAfterOrderByIdAsc(
+            LocalDateTime since, Long id, LocalDateTime now);
+
+    // 3) Prune entries whose tokens have expired anyway
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
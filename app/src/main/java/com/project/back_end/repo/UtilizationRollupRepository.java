@@ -0,0 +1,87 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.UtilizationTotals;
+import com.project.back_end.models.UtilizationRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UtilizationRollupRepository extends JpaRepository<UtilizationRollup, UtilizationRollup.Key> {
+
+    // 1) Per-doctor sums for one granularity over [from, to] (covering index scan)
+    @Query("""
+           SELECT new com.project.back_end.DTO.UtilizationTotals(r.doctorId, SUM(r.booked), SUM(r.completed), SUM(r.cancelled))
+           FROM UtilizationRollup r
+           WHERE r.period = :period AND r.periodStart BETWEEN :from AND :to
+           GROUP BY r.doctorId
+           """)
+    List<UtilizationTotals> sumByDoctor(@Param("period") String period,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+
+    // 2) Add deltas to the day row and its month row (creates them on first use)
+    @Modifying
+    @Query(value = """
+           INSERT INTO utilization_rollup (period, period_start, doctor_id, booked, completed, cancelled)
+           VALUES ('D', :day, :doctorId, :booked, :completed, :cancelled),
+                  ('M', :month, :doctorId, :booked, :completed, :cancelled)
+           ON DUPLICATE KEY UPDATE booked = booked + VALUES(booked),
+                                   completed = completed + VALUES(completed),
+                                   cancelled = cancelled + VALUES(cancelled)
+           """, nativeQuery = true)
+    void increment(@Param("doctorId") Long doctorId,
+                   @Param("day") LocalDate day,
+                   @Param("month") LocalDate month,
+                   @Param("booked") int booked,
+                   @Param("completed") int completed,
+                   @Param("cancelled") int cancelled);
+
+    // 3) Reconcile: zero booked/completed in a window (cancelled has no other source and is kept)
+    @Modifying
+    @Query(value = """
+           UPDATE utilization_rollup SET booked = 0, completed = 0
+           WHERE period = :period AND period_start >= :from AND period_start < :to
+           """, nativeQuery = true)
+    int resetCounts(@Param("period") String period,
+                    @Param("from") LocalDate from,
+                    @Param("to") LocalDate to);
+
+    // 4) Reconcile: recount live + archived appointments in [start, end) for one granularity
+    @Modifying
+    @Query(value = """
+           INSERT INTO utilization_rollup (period, period_start, doctor_id, booked, completed, cancelled)
+           SELECT :period,
+                  CASE WHEN :period = 'M' THEN DATE_FORMAT(x.appointment_time, '%Y-%m-01') ELSE DATE(x.appointment_time) END,
+                  x.doctor_id, COUNT(*), SUM(x.status = 1), 0
+           FROM (SELECT doctor_id, appointment_time, status FROM appointment
+                 WHERE appointment_time >= :start AND appointment_time < :end
+                 UNION ALL
+                 SELECT doctor_id, appointment_time, status FROM appointment_archive
+                 WHERE appointment_time >= :start AND appointment_time < :end) x
+           GROUP BY 2, x.doctor_id
+           ON DUPLICATE KEY UPDATE booked = VALUES(booked), completed = VALUES(completed)
+           """, nativeQuery = true)
+    int recount(@Param("period") String period,
+                @Param("start") LocalDateTime start,
+                @Param("end") LocalDateTime end);
+
+    // 5) Appointment time bounds of live and archived rows (reconcile window)
+    @Query("SELECT MIN(a.appointmentTime) FROM Appointment a")
+    LocalDateTime findFirstLiveTime();
+
+    @Query("SELECT MAX(a.appointmentTime) FROM Appointment a")
+    LocalDateTime findLastLiveTime();
+
+    @Query("SELECT MIN(a.appointmentTime) FROM ArchivedAppointment a")
+    LocalDateTime findFirstArchivedTime();
+
+    @Query("SELECT MAX(a.appointmentTime) FROM ArchivedAppointment a")
+    LocalDateTime findLastArchivedTime();
+}
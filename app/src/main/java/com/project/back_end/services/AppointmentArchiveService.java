@@ -0,0 +1,102 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.AsyncConfig;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves completed appointments (status = 1) older than a configurable age into appointment_archive.
+ * - Each batch is copy + delete in one short transaction (a row is never in both or neither table)
+ * - Batches are throttled so the live table stays responsive for bookings; the run happens on the
+ *   maintenance executor, the @Scheduled trigger only hands it over (no scheduler thread is held)
+ * - Patient lists and history read live + archived rows (PatientService), so moved visits stay visible
+ */
+@Service
+public class AppointmentArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentArchiveService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final TransactionTemplate tx;
+    private final Executor maintenanceExecutor;
+    private final int minAgeDays;
+    private final int batchSize;
+    private final long throttleMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AppointmentArchiveService(AppointmentRepository appointmentRepository,
+                                     ArchivedAppointmentRepository archivedAppointmentRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Qualifier(AsyncConfig.MAINTENANCE_EXECUTOR) Executor maintenanceExecutor,
+                                     @Value("${appointments.archive.min-age-days:365}") int minAgeDays,
+                                     @Value("${appointments.archive.batch-size:1000}") int batchSize,
+                                     @Value("${appointments.archive.throttle-ms:100}") long throttleMs) {
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+        this.throttleMs = throttleMs;
+    }
+
+    /* ===== Scheduled trigger (default nightly): start a run unless one is still going ===== */
+    @Scheduled(cron = "${appointments.archive.cron:0 30 2 * * *}")
+    public void archiveCompleted() {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            maintenanceExecutor.execute(() -> {
+                try {
+                    archive();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            running.set(false);
+            log.warn("Maintenance pool busy, appointment archiving skipped until the next run");
+        }
+    }
+
+    private void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        long moved = 0;
+        try {
+            List<Long> ids;
+            while (!(ids = appointmentRepository.findArchivableIds(cutoff, batchSize)).isEmpty()) {
+                moved += archiveBatch(ids);
+                if (throttleMs > 0) Thread.sleep(throttleMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Appointment archiving stopped after {} rows, will resume on next run", moved, e);
+            return;
+        }
+        if (moved > 0) log.info("Archived {} completed appointments older than {}", moved, cutoff);
+    }
+
+    private int archiveBatch(List<Long> ids) {
+        Integer n = tx.execute(status -> {
+            archivedAppointmentRepository.copyFromAppointments(ids);
+            return appointmentRepository.deleteByIdIn(ids);
+        });
+        return n == null ? 0 : n;
+    }
+}
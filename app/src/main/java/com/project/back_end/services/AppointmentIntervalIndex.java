@@ -0,0 +1,282 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.BookedInterval;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.repo.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of booked intervals per doctor-day, used as a fast pre-filter for conflict checks.
+ * It is not authoritative (other nodes book too and a day is only reloaded after ttl), so a booking
+ * that passes it is re-checked in the database under a lock before it is saved (AppointmentService).
+ * - Loaded from the database per doctor-day outside any map lock; reloaded after ttl so writes from
+ *   other nodes are picked up. Reservations not committed yet, or committed while the reload ran, are
+ *   carried over into the new copy
+ * - A day holds the intervals starting on it plus those of the previous day running past midnight;
+ *   an interval crossing midnight is stored in, and checked against, both days
+ * - Intervals sorted by start (TreeMap); an overlap query for [s, e) only scans starts in
+ *   (s - longest duration of that day, e), i.e. O(log n + k) instead of a query per attempt
+ * - tryReserve checks and inserts under the lock of every day it touches, so two bookings on this
+ *   node can never take overlapping intervals
+ */
+@Component
+public class AppointmentIntervalIndex {
+
+    private final AppointmentRepository appointmentRepository;
+    private final long ttlMillis;
+
+    private final Map<String, DayIndex> days = new ConcurrentHashMap<>();
+
+    public AppointmentIntervalIndex(AppointmentRepository appointmentRepository,
+                                    @Value("${appointments.interval-index.ttl-seconds:60}") long ttlSeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /* ===== true if [start, end) overlaps any booking of the doctor (ignoring excludeId) ===== */
+    public boolean overlaps(Long doctorId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        for (LocalDate date : dates(start, end)) {
+            DayIndex day = day(doctorId, date);
+            synchronized (day) {
+                if (day.overlaps(start, end, excludeId)) return true;
+            }
+        }
+        return false;
+    }
+
+    /* ===== atomically check + insert; null if it conflicts ===== */
+    public Interval tryReserve(Long doctorId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        Interval interval = new Interval(excludeId, start, end);
+        List<LocalDate> dates = dates(start, end);
+        while (true) {
+            List<DayIndex> touched = new ArrayList<>(dates.size());
+            for (LocalDate date : dates) touched.add(day(doctorId, date));
+            Boolean reserved = reserve(touched, 0, interval, excludeId);
+            if (reserved == null) continue; // a day was replaced by a reload meanwhile: retry on the new copy
+            if (!reserved) return null;
+            trackCompletion(doctorId, interval);
+            return interval;
+        }
+    }
+
+    /* ===== undo a reservation that was never persisted ===== */
+    public void release(Long doctorId, Interval interval) {
+        for (LocalDate date : dates(interval.start, interval.end)) {
+            DayIndex day = days.get(key(doctorId, date));
+            if (day == null) continue;
+            synchronized (day) {
+                day.remove(interval);
+            }
+        }
+    }
+
+    /* ===== drop an appointment's interval starting at 'start' (after commit when inside a transaction) ===== */
+    public void removeAfterCommit(Long doctorId, LocalDateTime start, Long appointmentId) {
+        Runnable remove = () -> {
+            // the interval may also sit in the next day's index if it runs past midnight
+            for (LocalDate date : List.of(start.toLocalDate(), start.toLocalDate().plusDays(1))) {
+                DayIndex day = days.get(key(doctorId, date));
+                if (day == null) continue;
+                synchronized (day) {
+                    day.removeById(appointmentId, start);
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove.run();
+                }
+            });
+        } else {
+            remove.run();
+        }
+    }
+
+    /* ===== mark a doctor-day stale; next access reloads it from the database (pending reservations are kept) ===== */
+    public void invalidate(Long doctorId, LocalDate date) {
+        DayIndex day = days.get(key(doctorId, date));
+        if (day != null) day.stale = true;
+    }
+
+    /* ===== drop doctor-days nobody looked at recently ===== */
+    @Scheduled(fixedDelay = 300_000)
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - Math.max(ttlMillis, 300_000);
+        days.values().removeIf(d -> d.lastAccess < cutoff && !d.hasPending());
+    }
+
+    /* ===== helpers ===== */
+
+    private DayIndex day(Long doctorId, LocalDate date) {
+        String key = key(doctorId, date);
+        long now = System.currentTimeMillis();
+        DayIndex day = days.get(key);
+        if (day == null || day.stale || now - day.loadedAt > ttlMillis) {
+            DayIndex loaded = load(doctorId, date, now); // database read outside the map's bin lock
+            day = days.compute(key, (k, cur) -> {
+                if (cur != null && !cur.stale && cur.loadedAt >= loaded.loadedAt) return cur; // newer reload won
+                if (cur != null) cur.handOver(loaded);
+                return loaded;
+            });
+        }
+        day.lastAccess = now;
+        return day;
+    }
+
+    private DayIndex load(Long doctorId, LocalDate date, long now) {
+        DayIndex day = new DayIndex(now);
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+        // from the previous midnight: appointments of the day before may run into this one
+        List<BookedInterval> booked = appointmentRepository.findIntervalsByDoctorIdAndDay(
+                doctorId, dayStart.minusDays(1), dayEnd);
+        for (BookedInterval b : booked) {
+            int minutes = b.getDurationMinutes() != null ? b.getDurationMinutes() : Appointment.DEFAULT_DURATION_MINUTES;
+            LocalDateTime end = b.getStart().plusMinutes(minutes);
+            if (end.isAfter(dayStart) && b.getStart().isBefore(dayEnd)) {
+                Interval interval = new Interval(b.getId(), b.getStart(), end);
+                interval.committedAt = now;
+                day.add(interval);
+            }
+        }
+        return day;
+    }
+
+    // locks days[i..] in date order, then checks and inserts; null if one of them was retired by a reload
+    private Boolean reserve(List<DayIndex> touched, int i, Interval interval, Long excludeId) {
+        if (i == touched.size()) {
+            for (DayIndex day : touched) {
+                if (day.overlaps(interval.start, interval.end, excludeId)) return false;
+            }
+            for (DayIndex day : touched) day.add(interval);
+            return true;
+        }
+        DayIndex day = touched.get(i);
+        synchronized (day) {
+            if (day.retired) return null;
+            return reserve(touched, i + 1, interval, excludeId);
+        }
+    }
+
+    // committed: reloads started after this point see the row; rolled back: remove it
+    private void trackCompletion(Long doctorId, Interval interval) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            interval.committedAt = System.currentTimeMillis();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    interval.committedAt = System.currentTimeMillis();
+                } else {
+                    release(doctorId, interval);
+                }
+            }
+        });
+    }
+
+    // the days [start, end) touches: one, or two when it crosses midnight
+    private static List<LocalDate> dates(LocalDateTime start, LocalDateTime end) {
+        LocalDate first = start.toLocalDate();
+        LocalDate last = end.minusNanos(1).toLocalDate();
+        if (!last.isAfter(first)) return List.of(first);
+        List<LocalDate> out = new ArrayList<>(2);
+        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) out.add(d);
+        return out;
+    }
+
+    private String key(Long doctorId, LocalDate date) {
+        return doctorId + "|" + date;
+    }
+
+    /* ===== one booked interval [start, end) ===== */
+    public static final class Interval {
+        private volatile Long appointmentId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private volatile long committedAt; // 0 while the reserving transaction is open
+
+        Interval(Long appointmentId, LocalDateTime start, LocalDateTime end) {
+            this.appointmentId = appointmentId;
+            this.start = start;
+            this.end = end;
+        }
+
+        // set once the reserved appointment has been saved
+        public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+    }
+
+    private static final class DayIndex {
+        private final TreeMap<LocalDateTime, List<Interval>> byStart = new TreeMap<>();
+        private long maxDurationMinutes;
+        private final long loadedAt;
+        private volatile long lastAccess;
+        private volatile boolean stale;
+        private boolean retired; // replaced by a reload; guarded by this
+
+        DayIndex(long loadedAt) {
+            this.loadedAt = loadedAt;
+            this.lastAccess = loadedAt;
+        }
+
+        boolean overlaps(LocalDateTime s, LocalDateTime e, Long excludeId) {
+            // any interval overlapping [s, e) starts before e and no earlier than s - longest duration
+            for (List<Interval> group : byStart.subMap(s.minusMinutes(maxDurationMinutes), false, e, false).values()) {
+                for (Interval i : group) {
+                    if (excludeId != null && excludeId.equals(i.appointmentId)) continue;
+                    if (i.end.isAfter(s)) return true;
+                }
+            }
+            return false;
+        }
+
+        void add(Interval i) {
+            byStart.computeIfAbsent(i.start, k -> new ArrayList<>(1)).add(i);
+            maxDurationMinutes = Math.max(maxDurationMinutes,
+                    java.time.Duration.between(i.start, i.end).toMinutes());
+        }
+
+        void remove(Interval i) {
+            List<Interval> group = byStart.get(i.start);
+            if (group != null && group.remove(i) && group.isEmpty()) byStart.remove(i.start);
+        }
+
+        void removeById(Long id, LocalDateTime start) {
+            List<Interval> group = byStart.get(start);
+            if (group == null) return;
+            group.removeIf(i -> id.equals(i.appointmentId));
+            if (group.isEmpty()) byStart.remove(start);
+        }
+
+        synchronized boolean hasPending() {
+            return byStart.values().stream().flatMap(List::stream).anyMatch(i -> i.committedAt == 0);
+        }
+
+        // this copy is being replaced by 'next' (not published yet): keep what its database read could not
+        // see, i.e. reservations not committed yet or committed after the read started
+        synchronized void handOver(DayIndex next) {
+            retired = true;
+            for (List<Interval> group : byStart.values()) {
+                for (Interval i : group) {
+                    if (i.committedAt != 0 && i.committedAt < next.loadedAt) continue;
+                    List<Interval> loaded = next.byStart.get(i.start);
+                    boolean present = loaded != null && i.appointmentId != null
+                            && loaded.stream().anyMatch(l -> i.appointmentId.equals(l.appointmentId));
+                    if (!present) next.add(i);
+                }
+            }
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentEvent;
+import com.project.back_end.DTO.BookedInterval;
+import com.project.back_end.DTO.FieldSelection;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
+import com.project.back_end.models.SearchNormalizer;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -23,15 +29,33 @@ public class AppointmentService {
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
     private final TokenService tokenService; // assumed to exist in your project
+    private final AppointmentStreamService appointmentStreamService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SlotHoldService slotHoldService;
+    private final AppointmentIntervalIndex intervalIndex;
+    private final DoctorService doctorService;
+    private final UtilizationService utilizationService;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
                               PatientRepository patientRepository,
                               DoctorRepository doctorRepository,
-                              TokenService tokenService) {
+                              TokenService tokenService,
+                              AppointmentStreamService appointmentStreamService,
+                              ApplicationEventPublisher eventPublisher,
+                              SlotHoldService slotHoldService,
+                              AppointmentIntervalIndex intervalIndex,
+                              DoctorService doctorService,
+                              UtilizationService utilizationService) {
         this.appointmentRepository = appointmentRepository;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
         this.tokenService = tokenService;
+        this.appointmentStreamService = appointmentStreamService;
+        this.eventPublisher = eventPublisher;
+        this.slotHoldService = slotHoldService;
+        this.intervalIndex = intervalIndex;
+        this.doctorService = doctorService;
+        this.utilizationService = utilizationService;
     }
 
     /* =========================================
@@ -40,6 +64,7 @@ public class AppointmentService {
        ========================================= */
     @Transactional
     public int bookAppointment(Appointment appointment) {
+        AppointmentIntervalIndex.Interval reserved = null;
         try {
             // Basic sanity checks (optional but helpful)
             if (appointment == null || appointment.getDoctor() == null || appointment.getPatient() == null
@@ -52,14 +77,36 @@ public class AppointmentService {
             Optional<Patient> pOpt = patientRepository.findById(appointment.getPatient().getId());
             if (dOpt.isEmpty() || pOpt.isEmpty()) return 0;
 
-            // (Optional) prevent double-booking at the exact time (1-hour assumed)
-            if (!isSlotFree(dOpt.get().getId(), appointment.getAppointmentTime())) {
+            Doctor doctor = dOpt.get();
+            LocalDateTime start = appointment.getAppointmentTime();
+
+            // slot temporarily held by another patient
+            if (slotHoldService.isHeldByOther(doctor.getId(), start, pOpt.get().getEmail())) {
                 return 0;
             }
 
-            appointmentRepository.save(appointment);
+            // prevent overlapping bookings: in-memory pre-filter (check + reserve on this node),
+            // then the authoritative re-check in the database with the doctor row locked
+            int minutes = doctorService.durationAt(doctor, start.toLocalTime());
+            LocalDateTime end = start.plusMinutes(minutes);
+            reserved = intervalIndex.tryReserve(doctor.getId(), start, end, null);
+            if (reserved == null) {
+                return 0;
+            }
+            if (overlapsLocked(doctor.getId(), start, end, null)) {
+                intervalIndex.release(doctor.getId(), reserved);
+                return 0;
+            }
+
+            appointment.setDurationMinutes(minutes);
+            Appointment saved = appointmentRepository.save(appointment);
+            reserved.setAppointmentId(saved.getId());
+            utilizationService.booked(doctor.getId(), start, saved.getStatus());
+            slotHoldService.consume(doctor.getId(), start); // hold → appointment
+            publish(AppointmentEvent.Type.BOOKED, saved);
             return 1;
         } catch (Exception e) {
+            if (reserved != null) intervalIndex.release(appointment.getDoctor().getId(), reserved);
             return 0;
         }
     }
@@ -81,6 +128,9 @@ public class AppointmentService {
         }
 
         Appointment existing = existingOpt.get();
+        Long oldDoctorId = existing.getDoctor().getId();
+        LocalDateTime oldTime = existing.getAppointmentTime();
+        Integer oldStatus = existing.getStatus();
 
         // Validate change (doctor, time etc.). If you have a separate validator, call it here.
         String validationError = validateAppointmentUpdate(existing, updated);
@@ -88,28 +138,51 @@ public class AppointmentService {
             return response(400, validationError);
         }
 
-        // Persist updates (update only allowed fields)
+        // Resolve target doctor/time before touching the managed entity
+        Doctor targetDoctor = existing.getDoctor();
         if (updated.getDoctor() != null && updated.getDoctor().getId() != null) {
             Optional<Doctor> dOpt = doctorRepository.findById(updated.getDoctor().getId());
             if (dOpt.isEmpty()) return response(400, "Invalid doctor");
-            existing.setDoctor(dOpt.get());
+            targetDoctor = dOpt.get();
         }
-
-        if (updated.getAppointmentTime() != null) {
-            // ensure new slot is free for that doctor (ignore if same exact slot)
-            Long docId = existing.getDoctor().getId();
-            LocalDateTime newTime = updated.getAppointmentTime();
-            if (!sameSlot(existing.getAppointmentTime(), newTime) && !isSlotFree(docId, newTime)) {
+        LocalDateTime newTime = updated.getAppointmentTime() != null ? updated.getAppointmentTime() : oldTime;
+
+        if (!Objects.equals(oldDoctorId, targetDoctor.getId()) || !sameSlot(oldTime, newTime)) {
+            // ensure the new interval is free for that doctor (its own old interval excluded)
+            int minutes = doctorService.durationAt(targetDoctor, newTime.toLocalTime());
+            LocalDateTime newEnd = newTime.plusMinutes(minutes);
+            AppointmentIntervalIndex.Interval reserved =
+                    intervalIndex.tryReserve(targetDoctor.getId(), newTime, newEnd, existing.getId());
+            if (reserved == null) {
                 return response(409, "Selected time is not available");
             }
-            existing.setAppointmentTime(newTime);
+            if (overlapsLocked(targetDoctor.getId(), newTime, newEnd, existing.getId())) {
+                intervalIndex.release(targetDoctor.getId(), reserved);
+                return response(409, "Selected time is not available");
+            }
+            intervalIndex.removeAfterCommit(oldDoctorId, oldTime, existing.getId());
+            existing.setDurationMinutes(minutes);
         }
 
+        // Persist updates (update only allowed fields)
+        existing.setDoctor(targetDoctor);
+        existing.setAppointmentTime(newTime);
+
         if (updated.getStatus() != existing.getStatus()) {
             existing.setStatus(updated.getStatus());
         }
 
         appointmentRepository.save(existing);
+        utilizationService.changed(oldDoctorId, oldTime, oldStatus,
+                existing.getDoctor().getId(), existing.getAppointmentTime(), existing.getStatus());
+
+        // notify the new doctor/day, and the old one too if the appointment moved away from it
+        publish(AppointmentEvent.Type.UPDATED, existing);
+        if (!Objects.equals(oldDoctorId, existing.getDoctor().getId())
+                || !Objects.equals(oldTime.toLocalDate(), existing.getAppointmentTime().toLocalDate())) {
+            eventPublisher.publishEvent(new AppointmentEvent(AppointmentEvent.Type.CANCELLED,
+                    existing.getId(), oldDoctorId, oldTime, existing.getStatus()));
+        }
         return response(200, "Appointment updated successfully");
     }
 
@@ -142,6 +215,9 @@ public class AppointmentService {
         }
 
         appointmentRepository.delete(appt);
+        utilizationService.cancelled(appt.getDoctor().getId(), appt.getAppointmentTime(), appt.getStatus());
+        intervalIndex.removeAfterCommit(appt.getDoctor().getId(), appt.getAppointmentTime(), appt.getId());
+        publish(AppointmentEvent.Type.CANCELLED, appt);
         return response(200, "Appointment canceled successfully");
     }
 
@@ -150,9 +226,16 @@ public class AppointmentService {
        - token → doctor identity
        - optional patient-name filter
        - returns Map with "appointments": List<AppointmentDTO>
+       - with a sparse fieldset: only those fields, selected
+         directly as columns (no entity loading)
        ========================================= */
     @Transactional(readOnly = true)
     public Map<String, Object> getAppointment(String pname, LocalDate date, String token) {
+        return getAppointment(pname, date, token, FieldSelection.parse(null, AppointmentDTO.FIELDS));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAppointment(String pname, LocalDate date, String token, FieldSelection fields) {
         Long doctorId;
         try {
             String identifier = tokenService.extractIdentifier(token);
@@ -172,11 +255,16 @@ public class AppointmentService {
         LocalDateTime start = date.atStartOfDay();
         LocalDateTime end = date.plusDays(1).atStartOfDay().minusNanos(1);
 
+        if (!fields.isAll()) {
+            String namePrefix = (pname != null && !pname.isBlank()) ? SearchNormalizer.likePrefix(pname) : null;
+            return Map.of("appointments", projectAppointments(fields, doctorId, start, end, namePrefix));
+        }
+
         List<Appointment> results;
         if (pname != null && !pname.isBlank()) {
             results = appointmentRepository
-                    .findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
-                            doctorId, pname.trim(), start, end);
+                    .findByDoctorIdAndPatientNamePrefixAndAppointmentTimeBetween(
+                            doctorId, SearchNormalizer.likePrefix(pname), start, end);
         } else {
             results = appointmentRepository
                     .findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
@@ -199,12 +287,145 @@ public class AppointmentService {
         if (apptOpt.isEmpty()) {
             return response(404, "Appointment not found");
         }
+        Appointment appt = apptOpt.get();
+        Integer oldStatus = appt.getStatus();
         appointmentRepository.updateStatus(status, id);
+        utilizationService.changed(appt.getDoctor().getId(), appt.getAppointmentTime(), oldStatus,
+                appt.getDoctor().getId(), appt.getAppointmentTime(), status);
+        eventPublisher.publishEvent(new AppointmentEvent(AppointmentEvent.Type.STATUS_CHANGED,
+                appt.getId(), appt.getDoctor().getId(), appt.getAppointmentTime(), status));
         return response(200, "Status updated");
     }
 
+    /* =========================================
+       6) Stream appointment changes (SSE) for the token's doctor on a date
+       - returns null if the token does not belong to a doctor
+       ========================================= */
+    @Transactional(readOnly = true)
+    public SseEmitter streamAppointments(LocalDate date, String token) {
+        String identifier = tokenService.extractIdentifier(token);
+        Doctor doctor = identifier == null ? null : doctorRepository.findByEmail(identifier);
+        if (doctor == null || date == null) return null;
+        return appointmentStreamService.subscribe(doctor.getId(), date);
+    }
+
+    /* =========================================
+       7) Hold a slot while the patient completes booking
+       - 201 with holdId/expiresAt, 409 if unavailable or held by someone else,
+         429 if the patient already holds appointments.hold.max-per-holder slots
+       ========================================= */
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> holdSlot(Appointment request, String token) {
+        if (request == null || request.getDoctor() == null || request.getDoctor().getId() == null
+                || request.getAppointmentTime() == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "doctor.id and appointmentTime are required"));
+        }
+        String holder = tokenService.extractIdentifier(token);
+        if (holder == null) return ResponseEntity.status(401).body(Map.of("message", "Invalid token"));
+
+        Long doctorId = request.getDoctor().getId();
+        LocalDateTime time = request.getAppointmentTime();
+        Optional<Doctor> dOpt = doctorRepository.findById(doctorId);
+        if (dOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid doctor ID"));
+        }
+        if (!isSlotFree(doctorId, time, doctorService.durationAt(dOpt.get(), time.toLocalTime()))) {
+            return ResponseEntity.status(409).body(Map.of("message", "Selected slot is not available"));
+        }
+
+        SlotHoldService.Placement placement = slotHoldService.place(doctorId, time, holder);
+        if (placement.result() == SlotHoldService.Placement.LIMIT) {
+            return ResponseEntity.status(429).body(Map.of("message",
+                    "You are already holding the maximum number of slots; release one first"));
+        }
+        if (placement.result() != SlotHoldService.Placement.PLACED) {
+            return ResponseEntity.status(409).body(Map.of("message", "Selected slot is currently held"));
+        }
+        SlotHoldService.Hold hold = placement.hold();
+        return ResponseEntity.status(201).body(Map.of(
+                "holdId", hold.getId(),
+                "expiresAt", hold.getExpiresAt().toString()
+        ));
+    }
+
+    /* =========================================
+       8) Release a hold early (e.g. booking modal closed)
+       ========================================= */
+    public ResponseEntity<Map<String, String>> releaseHold(String holdId, String token) {
+        String holder = tokenService.extractIdentifier(token);
+        if (holder == null) return response(401, "Invalid token");
+        return slotHoldService.release(holdId, holder)
+                ? response(200, "Hold released")
+                : response(404, "Hold not found");
+    }
+
+    /* =========================================
+       9) Change Status for a set of appointments (bulk prescriptions)
+       - one SELECT for the current rows, one UPDATE ... WHERE id IN (...)
+       - returns the ids that exist (and were updated)
+       ========================================= */
+    @Transactional
+    public Set<Long> changeStatus(Collection<Long> ids, int status) {
+        if (ids == null || ids.isEmpty()) return Set.of();
+        List<Appointment> appts = appointmentRepository.findAllById(new HashSet<>(ids));
+        if (appts.isEmpty()) return Set.of();
+
+        Set<Long> found = appts.stream().map(Appointment::getId).collect(Collectors.toSet());
+        appointmentRepository.updateStatusByIdIn(status, found);
+        for (Appointment appt : appts) {
+            Long doctorId = appt.getDoctor().getId();
+            utilizationService.changed(doctorId, appt.getAppointmentTime(), appt.getStatus(),
+                    doctorId, appt.getAppointmentTime(), status);
+            eventPublisher.publishEvent(new AppointmentEvent(AppointmentEvent.Type.STATUS_CHANGED,
+                    appt.getId(), doctorId, appt.getAppointmentTime(), status));
+        }
+        return found;
+    }
+
     /* ======= Helpers ======= */
 
+    // Delivered to SSE subscribers after the surrounding transaction commits
+    private void publish(AppointmentEvent.Type type, Appointment a) {
+        Long doctorId = (a.getDoctor() != null) ? a.getDoctor().getId() : null;
+        eventPublisher.publishEvent(new AppointmentEvent(type, a.getId(), doctorId,
+                a.getAppointmentTime(), a.getStatus()));
+    }
+
+    // Sparse rows: derived fields are computed from the columns they depend on
+    private List<Map<String, Object>> projectAppointments(FieldSelection fields, Long doctorId,
+                                                          LocalDateTime start, LocalDateTime end, String namePrefix) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (String f : fields.fields()) {
+            switch (f) {
+                case "appointmentDate", "appointmentTimeOnly" -> columns.add("appointmentTime");
+                case "endTime" -> {
+                    columns.add("appointmentTime");
+                    columns.add("durationMinutes");
+                }
+                default -> columns.add(f);
+            }
+        }
+
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (Map<String, Object> row : appointmentRepository.findProjected(columns, doctorId, start, end, namePrefix)) {
+            LocalDateTime time = (LocalDateTime) row.get("appointmentTime");
+            Map<String, Object> dto = new LinkedHashMap<>();
+            for (String f : fields.fields()) {
+                switch (f) {
+                    case "appointmentDate" -> dto.put(f, time.toLocalDate());
+                    case "appointmentTimeOnly" -> dto.put(f, time.toLocalTime());
+                    case "endTime" -> {
+                        Integer minutes = (Integer) row.get("durationMinutes");
+                        dto.put(f, time.plusMinutes(minutes != null ? minutes : Appointment.DEFAULT_DURATION_MINUTES));
+                    }
+                    default -> dto.put(f, row.get(f));
+                }
+            }
+            out.add(dto);
+        }
+        return out;
+    }
+
     // Map entity → DTO
     private AppointmentDTO toDTO(Appointment a) {
         Long id = a.getId();
@@ -219,7 +440,7 @@ public class AppointmentService {
         int status = a.getStatus();
 
         return new AppointmentDTO(id, doctorId, doctorName, patientId, patientName,
-                patientEmail, patientPhone, patientAddress, time, status);
+                patientEmail, patientPhone, patientAddress, time, a.getEndTime(), status);
     }
 
     // Validate update rules (doctor change, time availability, etc.)
@@ -233,19 +454,7 @@ public class AppointmentService {
             }
         }
 
-        // If time changed, ensure slot is available
-        if (updated.getAppointmentTime() != null &&
-            !sameSlot(existing.getAppointmentTime(), updated.getAppointmentTime())) {
-
-            Long targetDoctorId = (updated.getDoctor() != null && updated.getDoctor().getId() != null)
-                    ? updated.getDoctor().getId()
-                    : existing.getDoctor().getId();
-
-            if (!isSlotFree(targetDoctorId, updated.getAppointmentTime())) {
-                return "Selected time is not available";
-            }
-        }
-
+        // Slot availability is checked (and reserved) in updateAppointment via the interval index
         return null; // OK
     }
 
@@ -253,14 +462,29 @@ public class AppointmentService {
         return Objects.equals(a, b);
     }
 
-    // Checks if there’s no other appointment for the doctor within the hour starting at 'when'
-    private boolean isSlotFree(Long doctorId, LocalDateTime when) {
+    // Authoritative overlap check for a write: locks the doctor row (bookings of that doctor on any node
+    // wait here until this transaction ends), then reads the doctor's appointments that could overlap
+    // [start, end) with a locking read, so rows committed since this transaction's snapshot are seen too.
+    // On a conflict the index missed, the touched days are marked stale.
+    private boolean overlapsLocked(Long doctorId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        doctorRepository.lockById(doctorId);
+        // appointments are shorter than a day, so anything overlapping starts after start - 1 day
+        for (BookedInterval b : appointmentRepository.lockIntervalsByDoctorIdBetween(doctorId, start.minusDays(1), end)) {
+            if (b.getId().equals(excludeId)) continue;
+            int minutes = b.getDurationMinutes() != null ? b.getDurationMinutes() : Appointment.DEFAULT_DURATION_MINUTES;
+            if (b.getStart().plusMinutes(minutes).isAfter(start)) {
+                intervalIndex.invalidate(doctorId, start.toLocalDate());
+                intervalIndex.invalidate(doctorId, end.minusNanos(1).toLocalDate());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Checks that no appointment of the doctor overlaps [when, when + minutes) (index only: read paths)
+    private boolean isSlotFree(Long doctorId, LocalDateTime when, int minutes) {
         if (doctorId == null || when == null) return false;
-        LocalDateTime start = when;
-        LocalDateTime end = when.plusHours(1).minusNanos(1);
-        List<Appointment> taken = appointmentRepository
-                .findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
-        return taken.isEmpty();
+        return !intervalIndex.overlaps(doctorId, when, when.plusMinutes(minutes), null);
     }
 
     private ResponseEntity<Map<String, String>> response(int statusCode, String message) {
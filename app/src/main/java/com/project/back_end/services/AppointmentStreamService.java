@@ -0,0 +1,168 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentEvent;
+import com.project.back_end.config.AsyncConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event fan-out of appointment changes, keyed by doctor + day.
+ * - Emitters are async (no request thread held while open)
+ * - Events are pushed only after the originating transaction commits
+ * - Sends run on the stream executor, never on the committing request thread: each client has its own
+ *   queue, drained by at most one worker at a time (events stay in order per client, a stalled client
+ *   only holds its own worker); a client that falls max-pending events behind is disconnected
+ * - A periodic comment frame keeps proxies from closing idle streams and prunes dead clients
+ */
+@Service
+public class AppointmentStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentStreamService.class);
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Executor streamExecutor;
+    private final long timeoutMs;
+    private final int maxPending;
+
+    public AppointmentStreamService(@Qualifier(AsyncConfig.STREAM_EXECUTOR) Executor streamExecutor,
+                                    @Value("${appointments.stream.timeout-ms:1800000}") long timeoutMs,
+                                    @Value("${appointments.stream.max-pending:100}") int maxPending) {
+        this.streamExecutor = streamExecutor;
+        this.timeoutMs = timeoutMs;
+        this.maxPending = maxPending;
+    }
+
+    /* ===== subscribe: one emitter per open dashboard ===== */
+    public SseEmitter subscribe(Long doctorId, LocalDate date) {
+        String key = key(doctorId, date);
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber sub = new Subscriber(key, emitter);
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(sub);
+
+        Runnable remove = () -> remove(sub);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    /* ===== publish: after commit only, so clients never see rolled-back bookings ===== */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentEvent(AppointmentEvent event) {
+        if (event.getDoctorId() == null || event.getAppointmentDate() == null) return;
+        Set<Subscriber> subs = subscribers.get(key(event.getDoctorId(), event.getAppointmentDate()));
+        if (subs == null) return;
+
+        String name = event.getType().name().toLowerCase();
+        for (Subscriber sub : subs) {
+            sub.offer(SseEmitter.event().name(name).data(event));
+        }
+    }
+
+    /* ===== heartbeat ===== */
+    @Scheduled(fixedDelayString = "${appointments.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(subs -> subs.forEach(sub -> sub.offer(SseEmitter.event().comment("ping"))));
+    }
+
+    public int openStreams() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /* ===== helpers ===== */
+
+    private void remove(Subscriber sub) {
+        subscribers.computeIfPresent(sub.key, (k, subs) -> {
+            subs.remove(sub);
+            return subs.isEmpty() ? null : subs;
+        });
+        log.debug("SSE stream closed for {}", sub.key);
+    }
+
+    private String key(Long doctorId, LocalDate date) {
+        return doctorId + "|" + date;
+    }
+
+    // One open stream: pending events and a flag so only one worker writes to the emitter at a time
+    private final class Subscriber {
+        private final String key;
+        private final SseEmitter emitter;
+        private final Queue<SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(String key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEventBuilder event) {
+            if (size.incrementAndGet() > maxPending) {
+                size.decrementAndGet();
+                log.debug("SSE client for {} is {} events behind, disconnecting", key, maxPending);
+                close();
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                streamExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                draining.set(false);
+                close(); // pool saturated: drop the client rather than block the caller
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    size.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        remove(this);
+                        pending.clear();
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (!pending.isEmpty()) schedule(); // offered after the last poll
+        }
+
+        private void close() {
+            remove(this);
+            pending.clear();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.BatchRequest;
+import com.project.back_end.config.AsyncConfig;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs an ordered list of sub-requests against the existing REST routes in one HTTP call.
+ * The token is validated once by the caller; sub-requests then see it as valid
+ * (TokenService.withValidatedToken). Consecutive GETs run concurrently on the batch pool;
+ * a POST/PUT/DELETE waits for everything before it and runs alone, so writes keep their order.
+ * - Each sub-request passes through the application's servlet filters (admission control,
+ *   HTTP observation/tracing, request context ...) before the DispatcherServlet, like a top-level request
+ * - batch.timeout-ms bounds the whole batch, for every sub-request: one still running at the deadline
+ *   is answered 504 (a read is interrupted, a write is left to finish), and nothing is started after it
+ */
+@Service
+public class BatchService {
+
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "DELETE");
+
+    private final ObjectProvider<DispatcherServlet> dispatcherServlet;
+    private final ObjectProvider<Filter> filterBeans;
+    private final ObjectProvider<FilterRegistrationBean<?>> filterRegistrations;
+    private final ThreadPoolTaskExecutor batchExecutor;
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+    private final int maxRequests;
+    private final long timeoutMs;
+
+    private volatile List<Filter> filters;
+
+    public BatchService(ObjectProvider<DispatcherServlet> dispatcherServlet,
+                        ObjectProvider<Filter> filterBeans,
+                        ObjectProvider<FilterRegistrationBean<?>> filterRegistrations,
+                        @Qualifier(AsyncConfig.BATCH_EXECUTOR) ThreadPoolTaskExecutor batchExecutor,
+                        TokenService tokenService,
+                        ObjectMapper objectMapper,
+                        @Value("${batch.max-requests:20}") int maxRequests,
+                        @Value("${batch.timeout-ms:10000}") long timeoutMs) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.filterBeans = filterBeans;
+        this.filterRegistrations = filterRegistrations;
+        this.batchExecutor = batchExecutor;
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+        this.maxRequests = maxRequests;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /* ==== 1) execute ==== */
+    // One envelope entry per sub-request, in request order: {id, status, body}.
+    // IllegalArgumentException when the batch itself is malformed (nothing has run yet).
+    public List<Map<String, Object>> execute(HttpServletRequest request, HttpServletResponse response,
+                                             String user, String token, List<BatchRequest.Item> items) {
+        List<Prepared> prepared = prepare(request, response, token, items);
+        List<Map<String, Object>> results = new ArrayList<>(Collections.nCopies(prepared.size(), null));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        int i = 0;
+        while (i < prepared.size()) {
+            int end = i + 1;
+            if (prepared.get(i).isRead()) {
+                while (end < prepared.size() && prepared.get(end).isRead()) end++;
+            }
+            runWave(prepared, results, i, end, user, token, deadline);
+            i = end;
+        }
+        return results;
+    }
+
+    /* ==== 2) one wave: a run of GETs, or a single write ==== */
+    private void runWave(List<Prepared> prepared, List<Map<String, Object>> results,
+                         int from, int to, String user, String token, long deadline) {
+        Map<Integer, Future<Map<String, Object>>> futures = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            Prepared p = prepared.get(i);
+            if (System.nanoTime() - deadline >= 0) {
+                results.set(i, entry(p.id, 504, Map.of("error", "Not run: batch timed out")));
+                continue;
+            }
+            try {
+                futures.put(i, batchExecutor.submit(() -> dispatch(p, user, token)));
+            } catch (TaskRejectedException e) {
+                results.set(i, entry(p.id, 503, Map.of("error", "Batch pool saturated, retry later")));
+            }
+        }
+
+        for (Map.Entry<Integer, Future<Map<String, Object>>> f : futures.entrySet()) {
+            Prepared p = prepared.get(f.getKey());
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.set(f.getKey(), f.getValue().get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                // a read is interrupted; a write that already started is left to commit or roll back on its own
+                f.getValue().cancel(p.isRead());
+                results.set(f.getKey(), entry(p.id, 504, Map.of("error", p.isRead()
+                        ? "Sub-request timed out"
+                        : "Sub-request timed out; it may still complete")));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.set(f.getKey(), entry(p.id, 503, Map.of("error", "Interrupted")));
+            } catch (ExecutionException e) {
+                results.set(f.getKey(), entry(p.id, 500, Map.of("error", "Internal error")));
+            }
+        }
+    }
+
+    /* ==== 3) dispatch one sub-request: servlet filters, then the DispatcherServlet ==== */
+    private Map<String, Object> dispatch(Prepared p, String user, String token) {
+        try {
+            FilterChain chain = new SubRequestChain(filters(), dispatcherServlet.getObject());
+            tokenService.withValidatedToken(token, user, () -> {
+                try {
+                    chain.doFilter(p.request, p.response);
+                    return null;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (Exception e) {
+            return entry(p.id, 500, Map.of("error", "Internal error"));
+        }
+
+        int status = p.response.status();
+        byte[] body = p.response.body();
+        if (body.length == 0) {
+            String message = p.response.errorMessage();
+            return entry(p.id, status, status >= 400
+                    ? Map.of("error", message != null && !message.isBlank() ? message : "Request failed")
+                    : null);
+        }
+        String contentType = p.response.getContentType();
+        if (contentType != null && contentType.contains("json")) {
+            try {
+                return entry(p.id, status, objectMapper.readTree(body));
+            } catch (Exception ignored) {
+                // fall through: return the raw text
+            }
+        }
+        return entry(p.id, status, new String(body, StandardCharsets.UTF_8));
+    }
+
+    /* ==== helpers ==== */
+
+    // Validates every item and builds the request/response wrappers on the request thread
+    private List<Prepared> prepare(HttpServletRequest request, HttpServletResponse response,
+                                   String token, List<BatchRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("No requests in batch");
+        }
+        if (items.size() > maxRequests) {
+            throw new IllegalArgumentException("At most " + maxRequests + " requests per batch");
+        }
+        List<Prepared> prepared = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchRequest.Item item = items.get(i);
+            String id = item.getId() != null ? item.getId() : String.valueOf(i);
+            String method = item.getMethod() != null ? item.getMethod().trim().toUpperCase(Locale.ROOT) : "GET";
+            String path = item.getPath() != null ? item.getPath().trim() : "";
+            if (!METHODS.contains(method)) {
+                throw new IllegalArgumentException("Request " + id + ": unsupported method " + item.getMethod());
+            }
+            if (!path.startsWith("/") || path.startsWith("//") || path.startsWith("/batch")) {
+                throw new IllegalArgumentException("Request " + id + ": invalid path " + item.getPath());
+            }
+            byte[] body = null;
+            if (item.getBody() != null && !item.getBody().isNull()) {
+                try {
+                    body = objectMapper.writeValueAsBytes(item.getBody());
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Request " + id + ": invalid body");
+                }
+            }
+            String resolved = path.replace("{token}", token);
+            prepared.add(new Prepared(id, method,
+                    new BatchSubRequest(request, method, resolved, body),
+                    new BatchSubResponse(response)));
+        }
+        return prepared;
+    }
+
+    // The filters a top-level request to /* passes through, in container order: enabled registrations
+    // mapped to /* for REQUEST dispatches plus plain Filter beans (registered for /* by Boot).
+    // Resolved on first use, once every filter bean exists.
+    private List<Filter> filters() {
+        List<Filter> resolved = filters;
+        if (resolved != null) return resolved;
+        List<Object> ordered = new ArrayList<>();
+        Set<Filter> registered = Collections.newSetFromMap(new IdentityHashMap<>());
+        filterRegistrations.orderedStream().forEach(r -> {
+            registered.add(r.getFilter());
+            boolean allPaths = r.getUrlPatterns().isEmpty() || r.getUrlPatterns().contains("/*");
+            boolean onRequest = r.determineDispatcherTypes().contains(DispatcherType.REQUEST);
+            if (r.isEnabled() && allPaths && r.getServletRegistrationBeans().isEmpty()
+                    && r.getServletNames().isEmpty() && onRequest) {
+                ordered.add(r);
+            }
+        });
+        filterBeans.orderedStream().filter(f -> !registered.contains(f)).forEach(ordered::add);
+        ordered.sort(AnnotationAwareOrderComparator.INSTANCE);
+        resolved = ordered.stream()
+                .map(o -> o instanceof FilterRegistrationBean<?> r ? (Filter) r.getFilter() : (Filter) o)
+                .toList();
+        filters = resolved;
+        return resolved;
+    }
+
+    private static Map<String, Object> entry(String id, int status, Object body) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", id);
+        entry.put("status", status);
+        entry.put("body", body);
+        return entry;
+    }
+
+    // Walks the filters in order, then hands the request to the DispatcherServlet (one per sub-request)
+    private static final class SubRequestChain implements FilterChain {
+        private final List<Filter> filters;
+        private final Servlet servlet;
+        private int position;
+
+        SubRequestChain(List<Filter> filters, Servlet servlet) {
+            this.filters = filters;
+            this.servlet = servlet;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            if (position < filters.size()) {
+                filters.get(position++).doFilter(request, response, this);
+            } else {
+                servlet.service(request, response);
+            }
+        }
+    }
+
+    private record Prepared(String id, String method, BatchSubRequest request, BatchSubResponse response) {
+        boolean isRead() {
+            return method.equals("GET");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.project.back_end.services;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One sub-request of a batch, replayed through the servlet filters and the DispatcherServlet.
+ * Method, path, query, body and attributes are its own; headers are copied from the
+ * batch request up front so worker threads never touch the container's request state.
+ */
+class BatchSubRequest extends HttpServletRequestWrapper {
+
+    private final String method;
+    private final String path;
+    private final String queryString;
+    private final byte[] body;
+    private final String contextPath;
+    private final Map<String, String[]> parameters;
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    BatchSubRequest(HttpServletRequest batch, String method, String pathAndQuery, byte[] body) {
+        super(batch);
+        int q = pathAndQuery.indexOf('?');
+        this.method = method;
+        this.path = q < 0 ? pathAndQuery : pathAndQuery.substring(0, q);
+        this.queryString = q < 0 ? null : pathAndQuery.substring(q + 1);
+        this.body = body != null ? body : new byte[0];
+        this.contextPath = batch.getContextPath();
+        this.parameters = parseQuery(queryString);
+
+        for (String name : Collections.list(batch.getHeaderNames())) {
+            String key = name.toLowerCase(Locale.ROOT);
+            if (key.equals("content-length") || key.equals("content-type") || key.equals("accept")) continue;
+            headers.put(key, Collections.list(batch.getHeaders(name)));
+        }
+        headers.put("accept", List.of("application/json"));
+        if (this.body.length > 0) {
+            headers.put("content-type", List.of("application/json"));
+            headers.put("content-length", List.of(String.valueOf(this.body.length)));
+        }
+    }
+
+    /* ==== request line ==== */
+    @Override public String getMethod() { return method; }
+    @Override public String getRequestURI() { return contextPath + path; }
+    @Override public String getServletPath() { return path; }
+    @Override public String getPathInfo() { return null; }
+    @Override public String getQueryString() { return queryString; }
+    @Override public DispatcherType getDispatcherType() { return DispatcherType.REQUEST; }
+    @Override public boolean isAsyncSupported() { return false; }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer();
+        url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort());
+        return url.append(getRequestURI());
+    }
+
+    /* ==== parameters (query string only) ==== */
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override public Map<String, String[]> getParameterMap() { return Collections.unmodifiableMap(parameters); }
+    @Override public Enumeration<String> getParameterNames() { return Collections.enumeration(parameters.keySet()); }
+    @Override public String[] getParameterValues(String name) { return parameters.get(name); }
+
+    /* ==== headers ==== */
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return Collections.enumeration(headers.getOrDefault(name.toLowerCase(Locale.ROOT), List.of()));
+    }
+
+    @Override public Enumeration<String> getHeaderNames() { return Collections.enumeration(headers.keySet()); }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    @Override public long getDateHeader(String name) { return -1; }
+    @Override public String getContentType() { return getHeader("content-type"); }
+    @Override public int getContentLength() { return body.length; }
+    @Override public long getContentLengthLong() { return body.length; }
+    @Override public String getCharacterEncoding() { return StandardCharsets.UTF_8.name(); }
+    @Override public void setCharacterEncoding(String env) { } // body is always UTF-8; never touch the batch request
+
+    /* ==== body ==== */
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override public int read() { return in.read(); }
+            @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            @Override public boolean isFinished() { return in.available() == 0; }
+            @Override public boolean isReady() { return true; }
+            @Override public void setReadListener(ReadListener listener) { throw new UnsupportedOperationException(); }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    /* ==== attributes (never shared with the batch request) ==== */
+    @Override public Object getAttribute(String name) { return attributes.get(name); }
+    @Override public Enumeration<String> getAttributeNames() { return Collections.enumeration(attributes.keySet()); }
+    @Override public void removeAttribute(String name) { attributes.remove(name); }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) attributes.remove(name);
+        else attributes.put(name, value);
+    }
+
+    private static Map<String, String[]> parseQuery(String query) {
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.isEmpty()) continue;
+                int eq = pair.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                values.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+            }
+        }
+        Map<String, String[]> result = new LinkedHashMap<>();
+        values.forEach((k, v) -> result.put(k, v.toArray(new String[0])));
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+package com.project.back_end.services;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Captures status, content type and body of a batch sub-request in memory.
+ * Nothing is passed through to the real response, which belongs to the batch.
+ */
+class BatchSubResponse extends HttpServletResponseWrapper {
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+    private int status = SC_OK;
+    private String errorMessage;
+    private String contentType;
+    private PrintWriter writer;
+    private ServletOutputStream outputStream;
+
+    BatchSubResponse(HttpServletResponse batch) {
+        super(batch);
+    }
+
+    int status() { return status; }
+    String errorMessage() { return errorMessage; }
+
+    byte[] body() {
+        if (writer != null) writer.flush();
+        return buffer.toByteArray();
+    }
+
+    /* ==== status ==== */
+    @Override public void setStatus(int sc) { this.status = sc; }
+    @Override public int getStatus() { return status; }
+
+    @Override
+    public void sendError(int sc, String msg) {
+        this.status = sc;
+        this.errorMessage = msg;
+    }
+
+    @Override public void sendError(int sc) { sendError(sc, null); }
+
+    @Override
+    public void sendRedirect(String location) {
+        this.status = SC_FOUND;
+        setHeader("Location", location);
+    }
+
+    /* ==== headers ==== */
+    @Override
+    public void setHeader(String name, String value) {
+        if (value == null) headers.remove(key(name)); // null clears the header (Servlet spec)
+        else headers.put(key(name), new ArrayList<>(List.of(value)));
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (value != null) headers.computeIfAbsent(key(name), k -> new ArrayList<>()).add(value);
+    }
+
+    @Override public void setIntHeader(String name, int value) { setHeader(name, String.valueOf(value)); }
+    @Override public void addIntHeader(String name, int value) { addHeader(name, String.valueOf(value)); }
+    @Override public void setDateHeader(String name, long date) { setHeader(name, String.valueOf(date)); }
+    @Override public void addDateHeader(String name, long date) { addHeader(name, String.valueOf(date)); }
+    @Override public boolean containsHeader(String name) { return headers.containsKey(key(name)); }
+    @Override public Collection<String> getHeaderNames() { return headers.keySet(); }
+    @Override public Collection<String> getHeaders(String name) { return headers.getOrDefault(key(name), List.of()); }
+    @Override public void addCookie(Cookie cookie) { }
+    @Override public void setLocale(Locale loc) { }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(key(name));
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    @Override public void setContentType(String type) { this.contentType = type; }
+    @Override public String getContentType() { return contentType; }
+    @Override public void setCharacterEncoding(String charset) { }
+    @Override public String getCharacterEncoding() { return StandardCharsets.UTF_8.name(); }
+    @Override public void setContentLength(int len) { }
+    @Override public void setContentLengthLong(long len) { }
+
+    /* ==== body ==== */
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override public void write(int b) { buffer.write(b); }
+                @Override public void write(byte[] b, int off, int len) { buffer.write(b, off, len); }
+                @Override public boolean isReady() { return true; }
+                @Override public void setWriteListener(WriteListener listener) { throw new UnsupportedOperationException(); }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) writer = new PrintWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+        return writer;
+    }
+
+    @Override public void flushBuffer() { if (writer != null) writer.flush(); }
+    @Override public boolean isCommitted() { return false; }
+    @Override public void setBufferSize(int size) { }
+    @Override public int getBufferSize() { return Integer.MAX_VALUE; }
+    @Override public void resetBuffer() { buffer.reset(); }
+
+    @Override
+    public void reset() {
+        buffer.reset();
+        headers.clear();
+        status = SC_OK;
+        contentType = null;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,172 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.DoctorEvent;
+import com.project.back_end.models.SearchNormalizer;
+import com.project.back_end.repo.DoctorRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory facet counts for the doctor filters (specialty, AM/PM availability).
+ * - Loaded once at startup, then maintained incrementally from doctor save/update/delete events
+ * - A periodic rebuild reconciles anything missed (e.g. writes from another node); events applied
+ *   while its query runs are replayed onto the new snapshot, so the swap never loses them
+ * - Name-narrowed counts are computed from the in-memory entries, never from the database
+ */
+@Service
+public class DoctorFacetService {
+
+    private final DoctorRepository doctorRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Integer> specialtyCounts = new ConcurrentHashMap<>();
+    private volatile int amCount;
+    private volatile int pmCount;
+    private long version;                 // bumped by every upsert/remove (guarded by this)
+    private List<DoctorEvent> sinceRead;  // events applied while a rebuild reads; null otherwise
+
+    public DoctorFacetService(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    /* ===== facets: counts, optionally narrowed by a name prefix ===== */
+    public Map<String, Object> getFacets(String name) {
+        String prefix = SearchNormalizer.param(name);
+        if (prefix.isEmpty()) {
+            synchronized (this) {
+                return body(new TreeMap<>(specialtyCounts), amCount, pmCount, entries.size());
+            }
+        }
+
+        Map<String, Integer> specialties = new TreeMap<>();
+        int am = 0, pm = 0, total = 0;
+        for (Entry e : entries.values()) {
+            if (e.name == null || !e.name.startsWith(prefix)) continue;
+            total++;
+            if (e.specialty != null) specialties.merge(e.specialty, 1, Integer::sum);
+            if (e.am) am++;
+            if (e.pm) pm++;
+        }
+        return body(specialties, am, pm, total);
+    }
+
+    /* ===== incremental maintenance (after commit) ===== */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDoctorEvent(DoctorEvent event) {
+        apply(event);
+        if (sinceRead != null) sinceRead.add(event);
+    }
+
+    /* ===== full (re)build: one flat query (doctor x slot), grouped here =====
+       - read-write transaction: routed to the primary, a replica may lag behind the events applied here
+       - events applied during the query may be missing from it: replayed after the swap */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${doctor.facets.rebuild-ms:900000}", initialDelayString = "${doctor.facets.rebuild-ms:900000}")
+    @Transactional
+    public void rebuild() {
+        long readVersion;
+        synchronized (this) {
+            if (sinceRead != null) return; // another rebuild is reading
+            sinceRead = new ArrayList<>();
+            readVersion = version;
+        }
+        try {
+            Map<Long, Object[]> doctors = new LinkedHashMap<>();
+            Map<Long, List<String>> slots = new HashMap<>();
+            for (Object[] row : doctorRepository.findFacetRows()) {
+                Long id = (Long) row[0];
+                doctors.putIfAbsent(id, row);
+                List<String> times = slots.computeIfAbsent(id, k -> new ArrayList<>());
+                if (row[3] != null) times.add((String) row[3]);
+            }
+
+            synchronized (this) {
+                entries.clear();
+                specialtyCounts.clear();
+                amCount = 0;
+                pmCount = 0;
+                doctors.forEach((id, row) -> add(Entry.of(id, (String) row[1], (String) row[2], slots.get(id))));
+                if (version != readVersion) sinceRead.forEach(this::apply);
+            }
+        } finally {
+            synchronized (this) {
+                sinceRead = null;
+            }
+        }
+    }
+
+    /* ===== helpers ===== */
+
+    private synchronized void apply(DoctorEvent event) {
+        if (event.getType() == DoctorEvent.Type.DELETED) {
+            remove(event.getDoctorId());
+        } else {
+            upsert(Entry.of(event.getDoctorId(), event.getName(), event.getSpecialty(), event.getAvailableTimes()));
+        }
+    }
+
+    private synchronized void upsert(Entry e) {
+        if (e.id == null) return;
+        remove(e.id);
+        add(e);
+    }
+
+    private synchronized void remove(Long id) {
+        version++;
+        Entry old = entries.remove(id);
+        if (old == null) return;
+        if (old.specialty != null) {
+            specialtyCounts.computeIfPresent(old.specialty, (k, n) -> n > 1 ? n - 1 : null);
+        }
+        if (old.am) amCount--;
+        if (old.pm) pmCount--;
+    }
+
+    private void add(Entry e) {
+        entries.put(e.id, e);
+        if (e.specialty != null) specialtyCounts.merge(e.specialty, 1, Integer::sum);
+        if (e.am) amCount++;
+        if (e.pm) pmCount++;
+    }
+
+    private Map<String, Object> body(Map<String, Integer> specialties, int am, int pm, int total) {
+        return Map.of(
+                "specialty", specialties,
+                "time", Map.of("AM", am, "PM", pm),
+                "total", total
+        );
+    }
+
+    private static final class Entry {
+        final Long id;
+        final String name;
+        final String specialty;
+        final boolean am;
+        final boolean pm;
+
+        private Entry(Long id, String name, String specialty, boolean am, boolean pm) {
+            this.id = id;
+            this.name = name;
+            this.specialty = specialty;
+            this.am = am;
+            this.pm = pm;
+        }
+
+        // same AM/PM rule as DoctorService.filterDoctorByTime
+        static Entry of(Long id, String name, String specialty, List<String> availableTimes) {
+            boolean am = false, pm = false;
+            for (String slot : Optional.ofNullable(availableTimes).orElseGet(List::of)) {
+                if (DoctorService.isAM(DoctorService.normalizeSlot(slot))) am = true;
+                else pm = true;
+            }
+            return new Entry(id, SearchNormalizer.normalize(name), SearchNormalizer.normalize(specialty), am, pm);
+        }
+    }
+}
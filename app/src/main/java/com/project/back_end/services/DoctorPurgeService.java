@@ -0,0 +1,139 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.AsyncConfig;
+import com.project.back_end.models.DoctorPurge;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorPurgeRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background purge of soft-deleted doctors.
+ * - Deletes appointments in bounded batches, each in its own short transaction,
+ *   so bookings on the appointment table are never blocked for long
+ * - Prescriptions (Mongo) of each batch are removed first, so nothing is orphaned
+ * - Sleeps between batches (throttle) on the maintenance executor; the @Scheduled trigger only hands
+ *   the sweep over, so it never holds a scheduler thread
+ * - Progress per doctor is stored in doctor_purge (visible on every node), pruned after retention-hours
+ */
+@Service
+public class DoctorPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorPurgeService.class);
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final DoctorPurgeRepository doctorPurgeRepository;
+    private final Executor maintenanceExecutor;
+    private final int batchSize;
+    private final long throttleMs;
+    private final long retentionHours;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DoctorPurgeService(DoctorRepository doctorRepository,
+                              AppointmentRepository appointmentRepository,
+                              ArchivedAppointmentRepository archivedAppointmentRepository,
+                              PrescriptionRepository prescriptionRepository,
+                              DoctorPurgeRepository doctorPurgeRepository,
+                              @Qualifier(AsyncConfig.MAINTENANCE_EXECUTOR) Executor maintenanceExecutor,
+                              @Value("${doctor.purge.batch-size:500}") int batchSize,
+                              @Value("${doctor.purge.throttle-ms:200}") long throttleMs,
+                              @Value("${doctor.purge.progress-retention-hours:24}") long retentionHours) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.doctorPurgeRepository = doctorPurgeRepository;
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.batchSize = batchSize;
+        this.throttleMs = throttleMs;
+        this.retentionHours = retentionHours;
+    }
+
+    /* ===== Scheduled trigger: start a sweep unless the previous one is still running ===== */
+    @Scheduled(fixedDelayString = "${doctor.purge.interval-ms:10000}")
+    public void purgeDeletedDoctors() {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            maintenanceExecutor.execute(() -> {
+                try {
+                    sweep();
+                } catch (Exception e) {
+                    log.error("Doctor purge sweep failed, will retry on next run", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            running.set(false); // maintenance pool busy (archive job): try again next run
+        }
+    }
+
+    /* ===== Progress (null if the doctor was never deleted or its purge finished > retention ago) ===== */
+    public DoctorPurge getProgress(Long doctorId) {
+        return doctorPurgeRepository.findById(doctorId).orElse(null);
+    }
+
+    /* ===== helpers ===== */
+
+    private void sweep() {
+        for (Long doctorId : doctorRepository.findDeletedIds()) {
+            DoctorPurge p = doctorPurgeRepository.findById(doctorId).orElseGet(() -> new DoctorPurge(doctorId));
+            try {
+                purgeDoctor(p);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Purge of doctor {} failed, will retry on next run", doctorId, e);
+                p.setState(DoctorPurge.RETRYING);
+                doctorPurgeRepository.save(p);
+            }
+        }
+        doctorPurgeRepository.deleteFinishedBefore(LocalDateTime.now().minusHours(retentionHours));
+    }
+
+    private void purgeDoctor(DoctorPurge p) throws InterruptedException {
+        Long doctorId = p.getDoctorId();
+        p.setState(DoctorPurge.PURGING);
+        doctorPurgeRepository.save(p);
+
+        List<Long> ids;
+        while (!(ids = appointmentRepository.findIdBatchByDoctorId(doctorId, batchSize)).isEmpty()) {
+            long prescriptions = prescriptionRepository.deleteByAppointmentIdIn(ids);
+            p.batchDone(appointmentRepository.deleteByIdIn(ids), prescriptions);
+            doctorPurgeRepository.save(p);
+            if (throttleMs > 0) Thread.sleep(throttleMs);
+        }
+        // archived history references the doctor too
+        while (!(ids = archivedAppointmentRepository.findIdBatchByDoctorId(doctorId, batchSize)).isEmpty()) {
+            long prescriptions = prescriptionRepository.deleteByAppointmentIdIn(ids);
+            p.batchDone(archivedAppointmentRepository.deleteByIdIn(ids), prescriptions);
+            doctorPurgeRepository.save(p);
+            if (throttleMs > 0) Thread.sleep(throttleMs);
+        }
+
+        doctorRepository.purgeAvailableTimes(doctorId);
+        doctorRepository.purgeDeleted(doctorId);
+        p.setState(DoctorPurge.DONE);
+        doctorPurgeRepository.save(p);
+        log.info("Purged doctor {}: {} appointments, {} prescriptions in {} batches",
+                doctorId, p.getAppointmentsDeleted(), p.getPrescriptionsDeleted(), p.getBatches());
+    }
+}
@@ -1,42 +1,81 @@
 package com.project.back_end.services;
 
+import com.project.back_end.DTO.DoctorEvent;
+import com.project.back_end.DTO.FieldSelection;
 import com.project.back_end.DTO.Login;
-import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
-import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.models.DoctorPurge;
+import com.project.back_end.models.SearchNormalizer;
+import com.project.back_end.repo.DoctorPurgeRepository;
 import com.project.back_end.repo.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
+import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class DoctorService {
 
+    private static final Logger log = LoggerFactory.getLogger(DoctorService.class);
+
+    // Fields selectable with ?fields= on doctor lists (JSON names of Doctor)
+    public static final List<String> DOCTOR_FIELDS =
+            List.of("id", "name", "specialty", "email", "phone", "visitMinutes", "availableTimes");
+
     private final DoctorRepository doctorRepository;
-    private final AppointmentRepository appointmentRepository;
+    private final DoctorPurgeRepository doctorPurgeRepository;
     private final TokenService tokenService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SlotHoldService slotHoldService;
+    private final AppointmentIntervalIndex intervalIndex;
+    private final int defaultVisitMinutes;
 
     public DoctorService(DoctorRepository doctorRepository,
-                         AppointmentRepository appointmentRepository,
-                         TokenService tokenService) {
+                         DoctorPurgeRepository doctorPurgeRepository,
+                         TokenService tokenService,
+                         ApplicationEventPublisher eventPublisher,
+                         SlotHoldService slotHoldService,
+                         AppointmentIntervalIndex intervalIndex,
+                         @Value("${appointments.default-visit-minutes:60}") int defaultVisitMinutes) {
         this.doctorRepository = doctorRepository;
-        this.appointmentRepository = appointmentRepository;
+        this.doctorPurgeRepository = doctorPurgeRepository;
         this.tokenService = tokenService;
+        this.eventPublisher = eventPublisher;
+        this.slotHoldService = slotHoldService;
+        this.intervalIndex = intervalIndex;
+        this.defaultVisitMinutes = defaultVisitMinutes;
     }
 
     /* ============================================================
        getDoctorAvailability
        - returns doctor's available time slots (String) for a date,
-         excluding already-booked appointment times
+         excluding slots overlapping a booked appointment and held slots
+       - overlap check runs on AppointmentIntervalIndex (no query per call)
+       - with a token, slots held by that user stay visible to them
        ============================================================ */
     @Transactional(readOnly = true)
     public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
+        return availability(doctorId, date, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> getDoctorAvailability(Long doctorId, LocalDate date, String token) {
+        String holder = token == null ? null : tokenService.extractIdentifier(token);
+        return availability(doctorId, date, holder);
+    }
+
+    private List<String> availability(Long doctorId, LocalDate date, String holder) {
         if (doctorId == null || date == null) return Collections.emptyList();
 
         Optional<Doctor> docOpt = doctorRepository.findById(doctorId);
@@ -48,37 +87,61 @@ public class DoctorService {
 
         if (allSlots.isEmpty()) return allSlots;
 
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.plusDays(1).atStartOfDay().minusNanos(1);
+        int visit = visitMinutes(docOpt.get());
 
-        // appointments already booked that day
-        List<Appointment> appts = appointmentRepository
-                .findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
-
-        // normalize booked times to "HH:mm"
-        DateTimeFormatter HHmm = DateTimeFormatter.ofPattern("HH:mm");
-        Set<String> booked = appts.stream()
-                .map(a -> a.getAppointmentTime() != null ? a.getAppointmentTime().format(HHmm) : null)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+        // slots temporarily held by other patients (in-memory, see SlotHoldService)
+        Set<String> held = slotHoldService.heldTimes(doctorId, date, holder);
 
         return allSlots.stream()
-                .filter(s -> !booked.contains(normalizeSlot(s)))
+                .filter(s -> {
+                    String hhmm = normalizeSlot(s);
+                    if (held.contains(hhmm)) return false;
+                    if (!hhmm.matches("\\d{2}:\\d{2}")) return true; // unparseable: nothing to compare
+                    LocalDateTime from = date.atTime(LocalTime.parse(hhmm));
+                    return !intervalIndex.overlaps(doctorId, from, from.plusMinutes(slotMinutes(s, visit)), null);
+                })
                 .sorted(this::compareHHmm)
                 .collect(Collectors.toList());
     }
 
+    /* ============================================================
+       visitMinutes / durationAt
+       - doctor's visit length, falling back to appointments.default-visit-minutes
+       - durationAt: length of the slot starting at 'time' ("09:00-09:30" → 30),
+         otherwise the doctor's visit length
+       ============================================================ */
+    public int visitMinutes(Doctor doctor) {
+        Integer m = doctor != null ? doctor.getVisitMinutes() : null;
+        return m != null && m > 0 ? m : defaultVisitMinutes;
+    }
+
+    public int durationAt(Doctor doctor, LocalTime time) {
+        int visit = visitMinutes(doctor);
+        if (doctor.getAvailableTimes() == null || time == null) return visit;
+        String target = String.format("%02d:%02d", time.getHour(), time.getMinute());
+        for (String s : doctor.getAvailableTimes()) {
+            if (normalizeSlot(s).equals(target)) return slotMinutes(s, visit);
+        }
+        return visit;
+    }
+
     /* ============================================================
        saveDoctor
        - 1 success, -1 conflict(email exists), 0 error
+       - uniqueness enforced by uk_doctor_email (no pre-check read);
+         not wrapped in a transaction so the violation can be handled here
+       - other integrity violations (not-null, length) are logged and answer 0
        ============================================================ */
-    @Transactional
     public int saveDoctor(Doctor doctor) {
         try {
             if (doctor == null || doctor.getEmail() == null) return 0;
-            if (doctorRepository.findByEmail(doctor.getEmail()) != null) return -1;
-            doctorRepository.save(doctor);
+            Doctor saved = doctorRepository.saveAndFlush(doctor);
+            eventPublisher.publishEvent(DoctorEvent.saved(saved));
             return 1;
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.violated(e, "uk_doctor_email")) return -1;
+            log.warn("Doctor not saved: {}", e.getMostSpecificCause().getMessage());
+            return 0;
         } catch (Exception e) {
             return 0;
         }
@@ -87,13 +150,21 @@ public class DoctorService {
     /* ============================================================
        updateDoctor
        - 1 success, -1 not found, 0 error
+       - email or password change revokes the doctor's existing tokens
        ============================================================ */
     @Transactional
     public int updateDoctor(Doctor doctor) {
         try {
             if (doctor == null || doctor.getId() == null) return 0;
-            if (!doctorRepository.existsById(doctor.getId())) return -1;
-            doctorRepository.save(doctor);
+            Optional<Doctor> current = doctorRepository.findById(doctor.getId());
+            if (current.isEmpty()) return -1;
+            String oldEmail = current.get().getEmail();
+            String oldPassword = current.get().getPassword();
+            Doctor saved = doctorRepository.save(doctor);
+            if (!Objects.equals(oldEmail, saved.getEmail()) || !Objects.equals(oldPassword, saved.getPassword())) {
+                tokenService.revokeAllTokens(oldEmail);
+            }
+            eventPublisher.publishEvent(DoctorEvent.saved(saved));
             return 1;
         } catch (Exception e) {
             return 0;
@@ -111,14 +182,19 @@ public class DoctorService {
     /* ============================================================
        deleteDoctor
        - 1 success, -1 not found, 0 error
+       - soft delete only; DoctorPurgeService removes the doctor's
+         appointments and prescriptions in batches afterwards
+       - purge progress starts as PENDING (doctor_purge), so it can be polled right away
+       - the doctor's tokens are revoked
        ============================================================ */
     @Transactional
     public int deleteDoctor(long id) {
         try {
-            if (!doctorRepository.existsById(id)) return -1;
-            // remove all appointments for this doctor first
-            appointmentRepository.deleteAllByDoctorId(id);
-            doctorRepository.deleteById(id);
+            Optional<Doctor> doctor = doctorRepository.findById(id);
+            if (doctor.isEmpty() || doctorRepository.markDeleted(id) == 0) return -1;
+            doctorPurgeRepository.save(new DoctorPurge(id));
+            tokenService.revokeAllTokens(doctor.get().getEmail());
+            eventPublisher.publishEvent(DoctorEvent.deleted(id));
             return 1;
         } catch (Exception e) {
             return 0;
@@ -154,7 +230,7 @@ public class DoctorService {
        ============================================================ */
     @Transactional(readOnly = true)
     public Map<String, Object> findDoctorByName(String name) {
-        List<Doctor> doctors = doctorRepository.findByNameLike(name == null ? "" : name);
+        List<Doctor> doctors = doctorRepository.findByNamePrefix(SearchNormalizer.likePrefix(name));
         return Map.of("doctors", doctors);
     }
 
@@ -164,9 +240,9 @@ public class DoctorService {
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorsByNameSpecilityandTime(String name, String specialty, String amOrPm) {
         List<Doctor> base = doctorRepository
-                .findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(
-                        name == null ? "" : name,
-                        specialty == null ? "" : specialty
+                .findByNamePrefixAndSpecialty(
+                        SearchNormalizer.likePrefix(name),
+                        SearchNormalizer.param(specialty)
                 );
         return Map.of("doctors", filterDoctorByTime(base, amOrPm));
     }
@@ -176,7 +252,7 @@ public class DoctorService {
        ============================================================ */
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorByNameAndTime(String name, String amOrPm) {
-        List<Doctor> base = doctorRepository.findByNameLike(name == null ? "" : name);
+        List<Doctor> base = doctorRepository.findByNamePrefix(SearchNormalizer.likePrefix(name));
         return Map.of("doctors", filterDoctorByTime(base, amOrPm));
     }
 
@@ -186,9 +262,9 @@ public class DoctorService {
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorByNameAndSpecility(String name, String specilty) {
         List<Doctor> base = doctorRepository
-                .findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(
-                        name == null ? "" : name,
-                        specilty == null ? "" : specilty
+                .findByNamePrefixAndSpecialty(
+                        SearchNormalizer.likePrefix(name),
+                        SearchNormalizer.param(specilty)
                 );
         return Map.of("doctors", base);
     }
@@ -198,7 +274,7 @@ public class DoctorService {
        ============================================================ */
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorByTimeAndSpecility(String specilty, String amOrPm) {
-        List<Doctor> base = doctorRepository.findBySpecialtyIgnoreCase(specilty == null ? "" : specilty);
+        List<Doctor> base = doctorRepository.findBySpecialtyIgnoreCase(SearchNormalizer.param(specilty));
         return Map.of("doctors", filterDoctorByTime(base, amOrPm));
     }
 
@@ -207,7 +283,7 @@ public class DoctorService {
        ============================================================ */
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorBySpecility(String specilty) {
-        List<Doctor> base = doctorRepository.findBySpecialtyIgnoreCase(specilty == null ? "" : specilty);
+        List<Doctor> base = doctorRepository.findBySpecialtyIgnoreCase(SearchNormalizer.param(specilty));
         return Map.of("doctors", base);
     }
 
@@ -220,6 +296,52 @@ public class DoctorService {
         return Map.of("doctors", filterDoctorByTime(base, amOrPm));
     }
 
+    /* ============================================================
+       findDoctors (sparse fieldset)
+       - selects only the requested columns (no entity hydration);
+         availableTimes loaded separately, and only if requested or
+         needed for the AM/PM filter
+       - same filters as Service.filterDoctor (name prefix, exact specialty)
+       ============================================================ */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findDoctors(FieldSelection fields, String name, String specialty, String amOrPm) {
+        return findDoctors(fields, name, specialty, amOrPm, 0);
+    }
+
+    // First maxResults doctors by name (dashboard first page); maxResults <= 0 means all
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findDoctors(FieldSelection fields, String name, String specialty, String amOrPm,
+                                                int maxResults) {
+        boolean byTime = amOrPm != null && !amOrPm.isBlank();
+        boolean needTimes = fields.includes("availableTimes") || byTime;
+
+        List<String> columns = new ArrayList<>(fields.fields());
+        columns.remove("availableTimes");
+        if (needTimes && !columns.contains("id")) columns.add("id");
+        if (columns.isEmpty()) columns.add("id");
+
+        List<Map<String, Object>> rows = doctorRepository.findProjected(columns,
+                isBlank(name) ? null : SearchNormalizer.likePrefix(name),
+                isBlank(specialty) ? null : SearchNormalizer.param(specialty),
+                byTime ? 0 : maxResults);
+        if (!needTimes) return rows;
+
+        Map<Long, List<String>> times = doctorRepository.findAvailableTimes(
+                rows.stream().map(r -> (Long) r.get("id")).collect(Collectors.toList()));
+        boolean wantAM = byTime && amOrPm.trim().equalsIgnoreCase("AM");
+
+        List<Map<String, Object>> out = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            List<String> slots = times.getOrDefault((Long) row.get("id"), new ArrayList<>());
+            if (byTime && slots.stream().noneMatch(s -> isAM(normalizeSlot(s)) == wantAM)) continue;
+            if (fields.includes("availableTimes")) row.put("availableTimes", slots);
+            if (!fields.includes("id")) row.remove("id");
+            out.add(row);
+            if (maxResults > 0 && out.size() == maxResults) break;
+        }
+        return out;
+    }
+
     /* ============================================================
        Private helper: filterDoctorByTime
        - Doctors kept if ANY availableTimes entry falls in the requested half-day
@@ -240,11 +362,21 @@ public class DoctorService {
 
     /* =================== utilities =================== */
 
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static final String SLOT_RANGE = "\\d{1,2}:\\d{2}(\\s?(AM|PM))?\\s*-\\s*\\d{1,2}:\\d{2}(\\s?(AM|PM))?";
+
     // normalize "9:00", "09:00", "09:00 AM" → "HH:mm" when possible; otherwise uppercase text
-    private String normalizeSlot(String raw) {
+    // ranges like "09:00-10:00" (as stored by the admin dashboard) normalize to their start
+    static String normalizeSlot(String raw) {
         if (raw == null) return "";
         String s = raw.trim().toUpperCase(Locale.ROOT);
 
+        // "HH:mm-HH:mm" -> start
+        if (s.matches(SLOT_RANGE)) return normalizeSlot(s.substring(0, s.indexOf('-')));
+
         // Already "HH:mm"
         if (s.matches("\\d{2}:\\d{2}")) return s;
 
@@ -268,7 +400,20 @@ public class DoctorService {
         return s;
     }
 
-    private boolean isAM(String normalizedHHmmOrText) {
+    // minutes covered by a range slot ("09:00-09:30" → 30); fallback for single times
+    static int slotMinutes(String raw, int fallback) {
+        if (raw == null) return fallback;
+        String s = raw.trim().toUpperCase(Locale.ROOT);
+        if (!s.matches(SLOT_RANGE)) return fallback;
+        int dash = s.indexOf('-');
+        String from = normalizeSlot(s.substring(0, dash));
+        String to = normalizeSlot(s.substring(dash + 1));
+        if (!from.matches("\\d{2}:\\d{2}") || !to.matches("\\d{2}:\\d{2}")) return fallback;
+        long minutes = Duration.between(LocalTime.parse(from), LocalTime.parse(to)).toMinutes();
+        return minutes > 0 ? (int) minutes : fallback;
+    }
+
+    static boolean isAM(String normalizedHHmmOrText) {
         // If it's HH:mm, decide by hour < 12
         if (normalizedHHmmOrText.matches("\\d{2}:\\d{2}")) {
             int hour = Integer.parseInt(normalizedHHmmOrText.substring(0, 2));
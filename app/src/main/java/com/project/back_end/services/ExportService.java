@@ -0,0 +1,220 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.project.back_end.config.ExportDataSourceConfig;
+import com.project.back_end.models.Prescription;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Streams full extracts for reporting/audit as NDJSON or CSV straight to an OutputStream.
+ * - Appointments: plain JDBC on the export pool (ExportDataSourceConfig, useCursorFetch=true) with a
+ *   bounded fetch size, rows written as they arrive; live table first, then appointment_archive,
+ *   both in one read-only transaction so rows moved by the archive job meanwhile appear once
+ * - Prescriptions: Mongo cursor (MongoTemplate.stream) with a bounded batch size
+ * Nothing is collected into lists, so heap use is constant in the number of rows.
+ */
+@Service
+public class ExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final String[] APPOINTMENT_COLUMNS = {
+            "id", "appointmentTime", "durationMinutes", "status", "doctorId", "doctorName",
+            "specialty", "patientId", "patientName", "patientEmail", "patientPhone", "archived"
+    };
+
+    private static final String[] PRESCRIPTION_COLUMNS = {
+            "id", "appointmentId", "patientName", "medication", "dosage", "doctorNotes"
+    };
+
+    private static final String APPOINTMENT_SELECT = """
+            SELECT a.id, a.appointment_time, a.duration_minutes, a.status, d.id, d.name,
+                   d.specialty, p.id, p.name, p.email, p.phone
+            FROM %s a
+            JOIN doctor d ON d.id = a.doctor_id
+            JOIN patient p ON p.id = a.patient_id
+            WHERE a.appointment_time >= ? AND a.appointment_time < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final MongoTemplate mongoTemplate;
+    private final int mongoBatchSize;
+
+    public ExportService(@Qualifier(ExportDataSourceConfig.EXPORT_DATA_SOURCE) DataSource exportDataSource,
+                         MongoTemplate mongoTemplate,
+                         @Value("${export.jdbc.fetch-size:1000}") int fetchSize,
+                         @Value("${export.mongo.batch-size:1000}") int mongoBatchSize) {
+        // own template and transaction manager on the export pool: neither the fetch size nor the
+        // cursor setting leaks into the rest of the application
+        this.jdbcTemplate = new JdbcTemplate(exportDataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(new JdbcTransactionManager(exportDataSource));
+        this.readOnlyTx.setReadOnly(true);
+        this.mongoTemplate = mongoTemplate;
+        this.mongoBatchSize = mongoBatchSize;
+    }
+
+    /* ===== appointments in [from, to] (whole days), optionally for one doctor ===== */
+    public long exportAppointments(LocalDate from, LocalDate to, Long doctorId, String format,
+                                   OutputStream out) throws IOException {
+        RowWriter writer = rowWriter(format, APPOINTMENT_COLUMNS, out);
+        Long rows = readOnlyTx.execute(status ->
+                appointmentRows("appointment", false, from, to, doctorId, writer)
+                        + appointmentRows("appointment_archive", true, from, to, doctorId, writer));
+        writer.finish();
+        return rows != null ? rows : 0;
+    }
+
+    /* ===== all prescriptions, in _id order ===== */
+    public long exportPrescriptions(String format, OutputStream out) throws IOException {
+        RowWriter writer = rowWriter(format, PRESCRIPTION_COLUMNS, out);
+        Query query = new Query().with(Sort.by("_id")).cursorBatchSize(mongoBatchSize);
+        long rows = 0;
+        try (Stream<Prescription> cursor = mongoTemplate.stream(query, Prescription.class)) {
+            for (Prescription p : (Iterable<Prescription>) cursor::iterator) {
+                writer.row(new Object[]{p.getId(), p.getAppointmentId(), p.getPatientName(),
+                        p.getMedication(), p.getDosage(), p.getDoctorNotes()});
+                rows++;
+            }
+        }
+        writer.finish();
+        return rows;
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return NDJSON.equalsIgnoreCase(format) || CSV.equalsIgnoreCase(format);
+    }
+
+    /* ===== helpers ===== */
+
+    private long appointmentRows(String table, boolean archived, LocalDate from, LocalDate to,
+                                 Long doctorId, RowWriter writer) {
+        String sql = APPOINTMENT_SELECT.formatted(table)
+                + (doctorId != null ? " AND a.doctor_id = ?" : "")
+                + " ORDER BY a.appointment_time, a.id";
+        List<Object> args = new ArrayList<>(List.of(
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay())));
+        if (doctorId != null) args.add(doctorId);
+
+        long[] rows = {0};
+        jdbcTemplate.query(sql, rs -> {
+            Timestamp time = rs.getTimestamp(2);
+            Object duration = rs.getObject(3);
+            writer.row(new Object[]{
+                    rs.getLong(1), time != null ? time.toLocalDateTime() : null, duration, rs.getInt(4),
+                    rs.getLong(5), rs.getString(6), rs.getString(7),
+                    rs.getLong(8), rs.getString(9), rs.getString(10), rs.getString(11), archived
+            });
+            rows[0]++;
+        }, args.toArray());
+        return rows[0];
+    }
+
+    private RowWriter rowWriter(String format, String[] columns, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        return CSV.equalsIgnoreCase(format) ? new CsvWriter(columns, w) : new NdjsonWriter(columns, w);
+    }
+
+    // One row at a time; IO failures (client went away) abort the cursor via UncheckedIOException
+    private abstract static class RowWriter {
+        final String[] columns;
+        final Writer out;
+
+        RowWriter(String[] columns, Writer out) {
+            this.columns = columns;
+            this.out = out;
+        }
+
+        abstract void write(Object[] values) throws IOException;
+
+        void row(Object[] values) {
+            try {
+                write(values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static final class NdjsonWriter extends RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonWriter(String[] columns, Writer out) throws IOException {
+            super(columns, out);
+            this.json = new JsonFactory().createGenerator(out);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null); // lines are separated by '\n' below, not the default ' '
+        }
+
+        @Override
+        void write(Object[] values) throws IOException {
+            json.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object v = values[i];
+                json.writeFieldName(columns[i]);
+                if (v == null) json.writeNull();
+                else if (v instanceof Number n) json.writeNumber(n.toString());
+                else if (v instanceof Boolean b) json.writeBoolean(b);
+                else json.writeString(v.toString());
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            json.flush();
+            super.finish();
+        }
+    }
+
+    private static final class CsvWriter extends RowWriter {
+
+        CsvWriter(String[] columns, Writer out) throws IOException {
+            super(columns, out);
+            out.write(String.join(",", columns));
+            out.write("\r\n");
+        }
+
+        @Override
+        void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                if (values[i] != null) out.write(escape(values[i]));
+            }
+            out.write("\r\n");
+        }
+
+        // RFC 4180 quoting; text starting with = + - @ is prefixed so spreadsheets don't evaluate it
+        private static String escape(Object value) {
+            String s = value.toString();
+            if (value instanceof String && !s.isEmpty() && "=+-@".indexOf(s.charAt(0)) >= 0) s = "'" + s;
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.SearchNormalizer;
+import com.project.back_end.repo.DoctorRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * "First free appointment" search across many doctors.
+ * A priority queue is seeded with each doctor's earliest configured slot on the first day
+ * (a lower bound, no query). Popping an unresolved doctor-day loads that day's real availability
+ * and pushes its free slots back; popping a resolved slot yields a result. The search stops after
+ * `count` results, so only doctor-days that could beat the current best are ever queried.
+ */
+@Service
+public class NextAvailableService {
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorService doctorService;
+
+    public NextAvailableService(DoctorRepository doctorRepository, DoctorService doctorService) {
+        this.doctorRepository = doctorRepository;
+        this.doctorService = doctorService;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findNextAvailable(String specialty, List<Long> doctorIds,
+                                                       int days, int count) {
+        List<Doctor> doctors = (doctorIds != null && !doctorIds.isEmpty())
+                ? doctorRepository.findAllById(doctorIds)
+                : doctorRepository.findBySpecialtyIgnoreCase(SearchNormalizer.param(specialty));
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate first = now.toLocalDate();
+        LocalDate last = first.plusDays(Math.max(days, 1) - 1L);
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator
+                .comparing((Candidate c) -> c.time)
+                .thenComparing(c -> c.resolved ? 0 : 1)   // real slot before a bound at the same instant
+                .thenComparing(c -> c.doctor.getId()));
+
+        Map<Long, List<LocalTime>> configured = new HashMap<>();
+        for (Doctor d : doctors) {
+            List<LocalTime> slots = parseSlots(d.getAvailableTimes());
+            if (slots.isEmpty()) continue;
+            configured.put(d.getId(), slots);
+            queue.add(Candidate.bound(d, first, first.atTime(slots.get(0))));
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        while (!queue.isEmpty() && results.size() < count) {
+            Candidate c = queue.poll();
+            if (c.resolved) {
+                results.add(toResult(c));
+                continue;
+            }
+
+            // resolve this doctor-day: one availability lookup
+            List<LocalTime> free = parseSlots(doctorService.getDoctorAvailability(c.doctor.getId(), c.date));
+            for (LocalTime t : free) {
+                LocalDateTime when = c.date.atTime(t);
+                if (when.isAfter(now)) queue.add(Candidate.slot(c.doctor, c.date, when));
+            }
+
+            // next day's lower bound for this doctor; it sorts after all of today's slots,
+            // so it is only resolved (queried) if today's slots were not enough
+            LocalDate next = c.date.plusDays(1);
+            if (!next.isAfter(last)) {
+                queue.add(Candidate.bound(c.doctor, next, next.atTime(configured.get(c.doctor.getId()).get(0))));
+            }
+        }
+        return results;
+    }
+
+    /* ===== helpers ===== */
+
+    private List<LocalTime> parseSlots(List<String> raw) {
+        List<LocalTime> out = new ArrayList<>();
+        if (raw == null) return out;
+        for (String s : raw) {
+            String hhmm = DoctorService.normalizeSlot(s);
+            if (hhmm.matches("\\d{2}:\\d{2}")) out.add(LocalTime.parse(hhmm));
+        }
+        Collections.sort(out);
+        return out;
+    }
+
+    private Map<String, Object> toResult(Candidate c) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("doctorId", c.doctor.getId());
+        m.put("doctorName", c.doctor.getName());
+        m.put("specialty", c.doctor.getSpecialty());
+        m.put("date", c.date);
+        m.put("time", c.time.toLocalTime());
+        return m;
+    }
+
+    private static final class Candidate {
+        final Doctor doctor;
+        final LocalDate date;
+        final LocalDateTime time;
+        final boolean resolved;
+
+        private Candidate(Doctor doctor, LocalDate date, LocalDateTime time, boolean resolved) {
+            this.doctor = doctor;
+            this.date = date;
+            this.time = time;
+            this.resolved = resolved;
+        }
+
+        static Candidate bound(Doctor d, LocalDate date, LocalDateTime earliest) {
+            return new Candidate(d, date, earliest, false);
+        }
+
+        static Candidate slot(Doctor d, LocalDate date, LocalDateTime when) {
+            return new Candidate(d, date, when, true);
+        }
+    }
+}
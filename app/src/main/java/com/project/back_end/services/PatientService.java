@@ -1,40 +1,73 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.PatientHistoryDTO;
+import com.project.back_end.config.AsyncConfig;
 import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ArchivedAppointment;
 import com.project.back_end.models.Patient;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.SearchNormalizer;
 import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service
 public class PatientService {
 
+    private static final Logger log = LoggerFactory.getLogger(PatientService.class);
+
+    // status of past (completed) visits; the only status that gets archived
+    private static final int COMPLETED = 1;
+
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
     private final TokenService tokenService;
+    private final PrescriptionService prescriptionService;
+    private final Executor fanOutExecutor;
 
     public PatientService(PatientRepository patientRepository,
                           AppointmentRepository appointmentRepository,
-                          TokenService tokenService) {
+                          ArchivedAppointmentRepository archivedAppointmentRepository,
+                          TokenService tokenService,
+                          PrescriptionService prescriptionService,
+                          @Qualifier(AsyncConfig.FAN_OUT_EXECUTOR) Executor fanOutExecutor) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
         this.tokenService = tokenService;
+        this.prescriptionService = prescriptionService;
+        this.fanOutExecutor = fanOutExecutor;
     }
 
-    // 3) Create patient: 1 on success, 0 on failure
-    @Transactional
+    // 3) Create patient: 1 on success, -1 if email/phone already registered, 0 on failure
+    // uniqueness enforced by uk_patient_email / uk_patient_phone (no pre-check read);
+    // other integrity violations (not-null, length) are logged and answer 0
     public int createPatient(Patient patient) {
         try {
             if (patient == null) return 0;
-            patientRepository.save(patient);
+            patientRepository.saveAndFlush(patient);
             return 1;
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.violated(e, "uk_patient_email", "uk_patient_phone")) return -1;
+            log.warn("Patient not saved: {}", e.getMostSpecificCause().getMessage());
+            return 0;
         } catch (Exception e) {
             return 0;
         }
@@ -54,11 +87,8 @@ public class PatientService {
             if (authPatient == null) return error(401, "Unauthorized");
             if (!Objects.equals(authPatient.getId(), id)) return error(403, "Forbidden");
 
-            List<Appointment> appts = appointmentRepository.findByPatient_Id(id);
-            List<AppointmentDTO> dtos = appts.stream()
-                    .map(this::toDTO)
-                    .sorted(Comparator.comparing(AppointmentDTO::getAppointmentTime))
-                    .collect(Collectors.toList());
+            List<AppointmentDTO> dtos = withArchived(appointmentRepository.findByPatient_Id(id),
+                    archivedAppointmentRepository.findByPatientIdWithDoctor(id));
 
             return ok(Map.of("appointments", dtos));
         } catch (Exception e) {
@@ -67,7 +97,7 @@ public class PatientService {
     }
 
     // 5) Filter by condition (past/future) for a patient
-    // condition: "past" -> status=1, "future" -> status=0
+    // condition: "past" -> status=1 (includes archived rows), "future" -> status=0
     @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> filterByCondition(String condition, Long id) {
         try {
@@ -79,9 +109,8 @@ public class PatientService {
             List<Appointment> appts =
                     appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, status);
 
-            List<AppointmentDTO> dtos = appts.stream()
-                    .map(this::toDTO)
-                    .collect(Collectors.toList());
+            List<AppointmentDTO> dtos = withArchived(appts, status == COMPLETED
+                    ? archivedAppointmentRepository.findByPatientIdWithDoctor(id) : List.of());
 
             return ok(Map.of("appointments", dtos));
         } catch (Exception e) {
@@ -89,18 +118,16 @@ public class PatientService {
         }
     }
 
-    // 6) Filter by doctor name for a patient
+    // 6) Filter by doctor name for a patient (includes archived rows)
     @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId) {
         try {
             if (patientId == null || name == null) return error(400, "Invalid request");
 
-            List<Appointment> appts =
-                    appointmentRepository.filterByDoctorNameAndPatientId(name.trim(), patientId);
-
-            List<AppointmentDTO> dtos = appts.stream()
-                    .map(this::toDTO)
-                    .collect(Collectors.toList());
+            String doctorName = SearchNormalizer.likePrefix(name);
+            List<AppointmentDTO> dtos = withArchived(
+                    appointmentRepository.filterByDoctorNameAndPatientId(doctorName, patientId),
+                    archivedAppointmentRepository.filterByDoctorNameAndPatientId(doctorName, patientId));
 
             return ok(Map.of("appointments", dtos));
         } catch (Exception e) {
@@ -108,19 +135,19 @@ public class PatientService {
         }
     }
 
-    // 7) Filter by doctor name + condition (past/future) for a patient
+    // 7) Filter by doctor name + condition (past/future) for a patient ("past" includes archived rows)
     @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition, String name, long patientId) {
         try {
             Integer status = mapConditionToStatus(condition);
             if (status == null || name == null) return error(400, "Invalid request");
 
+            String doctorName = SearchNormalizer.likePrefix(name);
             List<Appointment> appts =
-                    appointmentRepository.filterByDoctorNameAndPatientIdAndStatus(name.trim(), patientId, status);
+                    appointmentRepository.filterByDoctorNameAndPatientIdAndStatus(doctorName, patientId, status);
 
-            List<AppointmentDTO> dtos = appts.stream()
-                    .map(this::toDTO)
-                    .collect(Collectors.toList());
+            List<AppointmentDTO> dtos = withArchived(appts, status == COMPLETED
+                    ? archivedAppointmentRepository.filterByDoctorNameAndPatientId(doctorName, patientId) : List.of());
 
             return ok(Map.of("appointments", dtos));
         } catch (Exception e) {
@@ -153,8 +180,89 @@ public class PatientService {
         }
     }
 
+    // 9) Medical history: a page of appointments joined with their prescriptions
+    // - live appointments first (newest first), then archived ones; the archive is only
+    //   queried once the page reaches past the last live row
+    // - MySQL rows and Mongo prescriptions for the page are fetched concurrently
+    public ResponseEntity<Map<String, Object>> getPatientHistory(Long id, String token, int page, int size) {
+        try {
+            if (id == null || token == null || token.isBlank() || page < 0 || size < 1 || size > 100) {
+                return error(400, "Invalid request");
+            }
+
+            String email = tokenService.extractIdentifier(token);
+            Patient authPatient = patientRepository.findByEmail(email);
+            if (authPatient == null) return error(401, "Unauthorized");
+            if (!Objects.equals(authPatient.getId(), id)) return error(403, "Forbidden");
+
+            Page<Long> livePage = appointmentRepository.findIdsByPatientId(id, PageRequest.of(page, size));
+            List<Long> liveIds = livePage.getContent();
+            long offset = (long) page * size;
+            long liveTotal = livePage.getTotalElements();
+
+            List<Long> archivedIds = List.of();
+            boolean hasNext = offset + size < liveTotal;
+            if (!hasNext) {
+                // page reaches the end of live rows: continue into the archive (+1 row to detect a next page)
+                int need = size - liveIds.size();
+                archivedIds = archivedAppointmentRepository.findIdSliceByPatientId(
+                        id, Math.max(0, offset - liveTotal), need + 1);
+                hasNext = archivedIds.size() > need;
+                if (hasNext) archivedIds = archivedIds.subList(0, need);
+            }
+
+            List<Long> pageIds = new ArrayList<>(liveIds);
+            pageIds.addAll(archivedIds);
+
+            List<PatientHistoryDTO> history = new ArrayList<>();
+            if (!pageIds.isEmpty()) {
+                List<Long> archivedPageIds = archivedIds;
+                CompletableFuture<List<Appointment>> liveF = CompletableFuture.supplyAsync(
+                        () -> liveIds.isEmpty() ? List.<Appointment>of()
+                                : appointmentRepository.findAllWithDoctorAndPatientByIdIn(liveIds), fanOutExecutor);
+                CompletableFuture<List<ArchivedAppointment>> archivedF = CompletableFuture.supplyAsync(
+                        () -> archivedPageIds.isEmpty() ? List.<ArchivedAppointment>of()
+                                : archivedAppointmentRepository.findAllWithDoctorAndPatientByIdIn(archivedPageIds),
+                        fanOutExecutor);
+                CompletableFuture<Map<Long, List<Prescription>>> rxF = CompletableFuture.supplyAsync(
+                        () -> prescriptionService.getPrescriptionsByAppointmentIds(pageIds), fanOutExecutor);
+
+                Map<Long, AppointmentDTO> byId = new HashMap<>();
+                liveF.join().forEach(a -> byId.put(a.getId(), toDTO(a)));
+                archivedF.join().forEach(a -> byId.put(a.getId(), toDTO(a)));
+                Map<Long, List<Prescription>> rxByAppt = rxF.join();
+
+                // keep the page order (newest first)
+                for (Long apptId : pageIds) {
+                    AppointmentDTO dto = byId.get(apptId);
+                    if (dto == null) continue; // removed/archived between the queries
+                    history.add(new PatientHistoryDTO(dto, rxByAppt.getOrDefault(apptId, List.of())));
+                }
+            }
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("history", history);
+            body.put("page", page);
+            body.put("size", size);
+            body.put("hasNext", hasNext);
+            return ok(body);
+        } catch (Exception e) {
+            return error(500, "Internal error");
+        }
+    }
+
     /* ================= Helpers ================= */
 
+    // Live rows plus archived ones (all completed, moved by AppointmentArchiveService), oldest first
+    private List<AppointmentDTO> withArchived(List<Appointment> live, List<ArchivedAppointment> archived) {
+        List<AppointmentDTO> dtos = new ArrayList<>(live.size() + archived.size());
+        live.forEach(a -> dtos.add(toDTO(a)));
+        archived.forEach(a -> dtos.add(toDTO(a)));
+        dtos.sort(Comparator.comparing(AppointmentDTO::getAppointmentTime,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return dtos;
+    }
+
     private AppointmentDTO toDTO(Appointment a) {
         Long id = a.getId();
         Long doctorId = (a.getDoctor() != null) ? a.getDoctor().getId() : null;
@@ -169,7 +277,18 @@ public class PatientService {
 
         return new AppointmentDTO(
                 id, doctorId, doctorName, patientId, patientName,
-                patientEmail, patientPhone, patientAddress, time, status
+                patientEmail, patientPhone, patientAddress, time, a.getEndTime(), status
+        );
+    }
+
+    private AppointmentDTO toDTO(ArchivedAppointment a) {
+        Patient p = a.getPatient();
+        return new AppointmentDTO(
+                a.getId(), a.getDoctor().getId(), a.getDoctor().getName(), p.getId(), p.getName(),
+                p.getEmail(), p.getPhone(), p.getAddress(), a.getAppointmentTime(),
+                a.getAppointmentTime().plusMinutes(a.getDurationMinutes() != null
+                        ? a.getDurationMinutes() : Appointment.DEFAULT_DURATION_MINUTES),
+                a.getStatus()
         );
     }
 
@@ -1,16 +1,37 @@
 package com.project.back_end.services;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.project.back_end.DTO.PrescriptionSearchHit;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ArchivedAppointment;
 import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
 import com.project.back_end.repo.PrescriptionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class PrescriptionService {
@@ -18,15 +39,27 @@ public class PrescriptionService {
     private static final Logger log = LoggerFactory.getLogger(PrescriptionService.class);
 
     private final PrescriptionRepository prescriptionRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final int bulkMaxItems;
 
     // 2) Constructor injection
-    public PrescriptionService(PrescriptionRepository prescriptionRepository) {
+    public PrescriptionService(PrescriptionRepository prescriptionRepository,
+                               AppointmentRepository appointmentRepository,
+                               ArchivedAppointmentRepository archivedAppointmentRepository,
+                               MongoTemplate mongoTemplate,
+                               @Value("${prescription.bulk.max-items:100}") int bulkMaxItems) {
         this.prescriptionRepository = prescriptionRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.bulkMaxItems = bulkMaxItems;
     }
 
     /**
      * 1) Save prescription
-     * - Prevent duplicates for the same appointmentId
+     * - Duplicates for the same appointmentId rejected by the unique index (no pre-check read)
      * - 201 on success
      * - 400 if already exists
      * - 500 on error
@@ -39,16 +72,13 @@ public class PrescriptionService {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
             }
 
-            List<Prescription> existing = prescriptionRepository.findByAppointmentId(prescription.getAppointmentId());
-            if (existing != null && !existing.isEmpty()) {
-                body.put("error", "Prescription already exists for this appointment");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
-            }
-
-            prescriptionRepository.save(prescription);
+            prescriptionRepository.insert(prescription);
             body.put("message", "Prescription saved");
             return ResponseEntity.status(HttpStatus.CREATED).body(body);
 
+        } catch (DuplicateKeyException e) {
+            body.put("error", "Prescription already exists for this appointment");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
         } catch (Exception e) {
             log.error("Failed to save prescription", e);
             body.put("error", "Internal server error");
@@ -86,4 +116,159 @@ public class PrescriptionService {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
         }
     }
+
+    /**
+     * 3) Get prescriptions for a set of appointmentIds
+     * - single $in query (indexed on appointmentId), projected fields only
+     * - returns appointmentId -> prescriptions; appointments without one are absent
+     */
+    public Map<Long, List<Prescription>> getPrescriptionsByAppointmentIds(Collection<Long> appointmentIds) {
+        if (appointmentIds == null || appointmentIds.isEmpty()) return Map.of();
+        return prescriptionRepository.findByAppointmentIdIn(appointmentIds).stream()
+                .collect(Collectors.groupingBy(Prescription::getAppointmentId));
+    }
+
+    /**
+     * 4) Save a list of prescriptions (end-of-day charting)
+     * - one unordered bulk insert: valid items are written even when others fail
+     * - duplicates (existing or repeated in the list) rejected by the unique index, as in savePrescription
+     * - 200 with one result per item, in request order: {index, appointmentId, status, message|error}
+     *   status 201 saved, 400 invalid / already exists, 500 not written
+     * - 400 if the list is empty or longer than prescription.bulk.max-items
+     */
+    public ResponseEntity<Map<String, Object>> savePrescriptions(List<Prescription> prescriptions) {
+        Map<String, Object> body = new HashMap<>();
+        if (prescriptions == null || prescriptions.isEmpty() || prescriptions.size() > bulkMaxItems) {
+            body.put("error", "Send between 1 and " + bulkMaxItems + " prescriptions");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(prescriptions.size());
+        List<Prescription> valid = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>(); // request index of each item in valid
+        for (int i = 0; i < prescriptions.size(); i++) {
+            Prescription p = prescriptions.get(i);
+            if (p == null || p.getAppointmentId() == null) {
+                results.add(itemResult(i, p, HttpStatus.BAD_REQUEST, "error", "Invalid prescription payload"));
+            } else {
+                results.add(itemResult(i, p, HttpStatus.CREATED, "message", "Prescription saved"));
+                valid.add(p);
+                positions.add(i);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class)
+                        .insert(valid)
+                        .execute();
+            } catch (DataAccessException e) {
+                // DuplicateKeyException / BulkOperationException both carry the driver's per-item errors
+                MongoBulkWriteException bulk = bulkWriteFailure(e);
+                if (bulk == null) {
+                    log.error("Bulk prescription insert failed", e);
+                    for (int i : positions) {
+                        results.set(i, itemResult(i, prescriptions.get(i), HttpStatus.INTERNAL_SERVER_ERROR,
+                                "error", "Internal server error"));
+                    }
+                } else {
+                    for (BulkWriteError error : bulk.getWriteErrors()) {
+                        int i = positions.get(error.getIndex());
+                        boolean duplicate = ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY;
+                        if (!duplicate) log.error("Prescription insert failed at index {}: {}", i, error.getMessage());
+                        results.set(i, duplicate
+                                ? itemResult(i, prescriptions.get(i), HttpStatus.BAD_REQUEST,
+                                        "error", "Prescription already exists for this appointment")
+                                : itemResult(i, prescriptions.get(i), HttpStatus.INTERNAL_SERVER_ERROR,
+                                        "error", "Internal server error"));
+                    }
+                }
+            }
+        }
+
+        long saved = results.stream().filter(r -> r.get("status").equals(HttpStatus.CREATED.value())).count();
+        body.put("results", results);
+        body.put("saved", saved);
+        body.put("failed", results.size() - saved);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * 5) Search prescriptions by medication / doctor notes (e.g. a drug recall)
+     * - $text query, always answered from the text index on medication + doctorNotes
+     *   (medication weighted higher); any word matches, best matches first, "quoted" text as a phrase
+     * - one page per call: size + 1 rows are read to set hasNext, no count
+     * - appointment and patient references for the page: one query on live appointments,
+     *   one on the archive for the rest
+     * - 400 if q is blank or longer than 100 characters, page < 0 or size outside 1..100
+     */
+    public ResponseEntity<Map<String, Object>> searchPrescriptions(String q, int page, int size) {
+        Map<String, Object> body = new HashMap<>();
+        try {
+            if (q == null || q.isBlank() || q.length() > 100 || page < 0 || size < 1 || size > 100) {
+                body.put("error", "Invalid request");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+            }
+
+            TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(q.trim()))
+                    .sortByScore();
+            query.with(Sort.by(Sort.Direction.DESC, "_id"));
+            query.skip((long) page * size).limit(size + 1);
+            List<Prescription> found = mongoTemplate.find(query, Prescription.class);
+
+            boolean hasNext = found.size() > size;
+            if (hasNext) found = found.subList(0, size);
+
+            List<Long> appointmentIds = found.stream().map(Prescription::getAppointmentId).distinct().toList();
+            Map<Long, Appointment> live = appointmentIds.isEmpty() ? Map.of()
+                    : appointmentRepository.findAllWithDoctorAndPatientByIdIn(appointmentIds).stream()
+                            .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+            List<Long> missing = appointmentIds.stream().filter(id -> !live.containsKey(id)).toList();
+            Map<Long, ArchivedAppointment> archived = missing.isEmpty() ? Map.of()
+                    : archivedAppointmentRepository.findAllWithDoctorAndPatientByIdIn(missing).stream()
+                            .collect(Collectors.toMap(ArchivedAppointment::getId, Function.identity()));
+
+            List<PrescriptionSearchHit> hits = new ArrayList<>(found.size());
+            for (Prescription p : found) {
+                Appointment a = live.get(p.getAppointmentId());
+                ArchivedAppointment aa = archived.get(p.getAppointmentId());
+                if (a != null) {
+                    hits.add(new PrescriptionSearchHit(p, a.getPatient().getId(), a.getDoctor().getId(),
+                            a.getDoctor().getName(), a.getAppointmentTime(), false));
+                } else if (aa != null) {
+                    hits.add(new PrescriptionSearchHit(p, aa.getPatient().getId(), aa.getDoctor().getId(),
+                            aa.getDoctor().getName(), aa.getAppointmentTime(), true));
+                } else {
+                    hits.add(new PrescriptionSearchHit(p, null, null, null, null, false));
+                }
+            }
+
+            body.put("prescriptions", hits);
+            body.put("page", page);
+            body.put("size", size);
+            body.put("hasNext", hasNext);
+            return ResponseEntity.ok(body);
+
+        } catch (Exception e) {
+            log.error("Prescription search failed for q={}", q, e);
+            body.put("error", "Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+        }
+    }
+
+    private static Map<String, Object> itemResult(int index, Prescription p, HttpStatus status, String key, String text) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", index);
+        result.put("appointmentId", p == null ? null : p.getAppointmentId());
+        result.put("status", status.value());
+        result.put(key, text);
+        return result;
+    }
+
+    private static MongoBulkWriteException bulkWriteFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof MongoBulkWriteException bulk) return bulk;
+        }
+        return null;
+    }
 }
@@ -0,0 +1,63 @@
+package com.project.back_end.services;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory token-bucket rate limiter.
+ * - Buckets live in a ConcurrentHashMap (lock-striped), each bucket guarded by its own monitor,
+ *   so callers with different keys never contend
+ * - Idle buckets are evicted periodically to bound memory
+ */
+@Component
+public class RateLimiter {
+
+    private static final long IDLE_EVICT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /* ====================== tryAcquire ====================== */
+    // Returns 0 if a token was taken, otherwise the nanoseconds until the next token is available
+    public long tryAcquire(String key, int capacity, double refillPerSecond) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+        return bucket.tryTake(capacity, refillPerSecond, now);
+    }
+
+    /* ====================== evictIdle ====================== */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(e -> e.getValue().idleFor(now) > IDLE_EVICT_NANOS);
+    }
+
+    /* ====================== Bucket ====================== */
+    private static final class Bucket {
+        private double tokens;
+        private long lastNanos;
+
+        Bucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastNanos = now;
+        }
+
+        synchronized long tryTake(int capacity, double refillPerSecond, long now) {
+            double refill = (now - lastNanos) / 1e9 * refillPerSecond;
+            tokens = Math.min(capacity, tokens + refill);
+            lastNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerSecond * 1e9);
+        }
+
+        synchronized long idleFor(long now) {
+            return now - lastNanos;
+        }
+    }
+}
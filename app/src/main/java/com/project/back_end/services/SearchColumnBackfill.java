@@ -0,0 +1,60 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills the normalized *_search columns for rows written before they existed.
+ * New and updated rows are maintained by the entities' @PrePersist/@PreUpdate callbacks.
+ */
+@Component
+public class SearchColumnBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchColumnBackfill.class);
+
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+
+    public SearchColumnBackfill(DoctorRepository doctorRepository, PatientRepository patientRepository) {
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int doctors = 0;
+            List<Doctor> ds;
+            while (!(ds = doctorRepository.findTop500ByNameSearchIsNull()).isEmpty()) {
+                ds.forEach(Doctor::refreshSearchColumns);
+                if (ds.stream().allMatch(d -> d.getNameSearch() == null)) break; // null names: nothing to fill
+                doctorRepository.saveAll(ds);
+                doctors += ds.size();
+            }
+
+            int patients = 0;
+            List<Patient> ps;
+            while (!(ps = patientRepository.findTop500ByNameSearchIsNull()).isEmpty()) {
+                ps.forEach(Patient::refreshSearchColumns);
+                if (ps.stream().allMatch(p -> p.getNameSearch() == null)) break;
+                patientRepository.saveAll(ps);
+                patients += ps.size();
+            }
+
+            if (doctors + patients > 0) {
+                log.info("Backfilled search columns for {} doctors and {} patients", doctors, patients);
+            }
+        } catch (Exception e) {
+            log.error("Search column backfill failed", e);
+        }
+    }
+}
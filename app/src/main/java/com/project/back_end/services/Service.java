@@ -1,5 +1,6 @@
 package com.project.back_end.services;
 
+import com.project.back_end.DTO.FieldSelection;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Admin; 
 import com.project.back_end.models.Appointment;
@@ -11,6 +12,7 @@ import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -54,6 +56,17 @@ public class Service {
         }
     }
 
+    /* ====================== logout ====================== */
+    // Revokes the token (TokenRevocationService); 401 if it is already invalid
+    public ResponseEntity<Map<String, String>> logout(String token) {
+        try {
+            if (!tokenService.revokeToken(token)) return resp(401, "Invalid or expired token");
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
+        } catch (Exception e) {
+            return resp(500, "Internal error");
+        }
+    }
+
     /* ====================== validateAdmin ====================== */
     public ResponseEntity<Map<String, String>> validateAdmin(Admin receivedAdmin) {
         try {
@@ -79,6 +92,15 @@ public class Service {
 
     /* ====================== filterDoctor ====================== */
     public Map<String, Object> filterDoctor(String name, String specialty, String time) {
+        return filterDoctor(name, specialty, time, FieldSelection.parse(null, DoctorService.DOCTOR_FIELDS));
+    }
+
+    // With a sparse fieldset the columns are selected directly (DoctorService.findDoctors)
+    public Map<String, Object> filterDoctor(String name, String specialty, String time, FieldSelection fields) {
+        if (!fields.isAll()) {
+            return Map.of("doctors", doctorService.findDoctors(fields, name, specialty, time));
+        }
+
         // time expected "AM"/"PM" or null
         boolean hasName = name != null && !name.isBlank();
         boolean hasSpec = specialty != null && !specialty.isBlank();
@@ -111,7 +133,16 @@ public class Service {
 
     /* ====================== validateAppointment ====================== */
     // Returns: 1 if appointment time valid, 0 if time unavailable, -1 if doctor missing
+    // Read-write transaction on purpose: the availability read joins it and stays on the
+    // primary, so a lagging replica can't report an already-booked slot as free
+    @Transactional
     public int validateAppointment(Appointment appointment) {
+        return validateAppointment(appointment, null);
+    }
+
+    // Same, but a slot held by the token's user (SlotHoldService) counts as available to them
+    @Transactional
+    public int validateAppointment(Appointment appointment, String token) {
         try {
             if (appointment == null || appointment.getDoctor() == null ||
                 appointment.getDoctor().getId() == null || appointment.getAppointmentTime() == null) {
@@ -123,7 +154,7 @@ public class Service {
             if (docOpt.isEmpty()) return -1;
 
             LocalDate date = appointment.getAppointmentTime().toLocalDate();
-            List<String> free = doctorService.getDoctorAvailability(doctorId, date);
+            List<String> free = doctorService.getDoctorAvailability(doctorId, date, token);
 
             // compare HH:mm
             String target = appointment.getAppointmentTime().toLocalTime()
@@ -136,16 +167,6 @@ public class Service {
         }
     }
 
-    /* ====================== validatePatient ====================== */
-    // true if patient does NOT exist yet (ok to register), false if already exists
-    public boolean validatePatient(Patient patient) {
-        if (patient == null) return false;
-        String email = patient.getEmail();
-        String phone = patient.getPhone();
-        var existing = patientRepository.findByEmailOrPhone(email, phone);
-        return existing == null; // true means no duplicate found
-    }
-
     /* ====================== validatePatientLogin ====================== */
     public ResponseEntity<Map<String, String>> validatePatientLogin(Login login) {
         try {
@@ -208,23 +229,8 @@ public class Service {
         return ResponseEntity.status(status).body(Map.of("message", message));
     }
 
-    // Normalize inputs like "9:00", "09:00", "09:00 AM" → "HH:mm"
+    // Normalize inputs like "9:00", "09:00", "09:00 AM", "09:00-10:00" → "HH:mm"
     private String normalizeHHmm(String raw) {
-        if (raw == null) return "";
-        String s = raw.trim().toUpperCase(Locale.ROOT);
-        if (s.matches("\\d{2}:\\d{2}")) return s;          // "09:00"
-        if (s.matches("\\d{1}:\\d{2}")) return "0" + s;    // "9:00" -> "09:00"
-        if (s.matches("\\d{1,2}:\\d{2}\\s?(AM|PM)")) {     // "09:00 AM"
-            String[] parts = s.split("\\s+");
-            String hhmm = parts[0];
-            boolean pm = s.endsWith("PM");
-            String[] hm = hhmm.split(":");
-            int h = Integer.parseInt(hm[0]);
-            int m = Integer.parseInt(hm[1]);
-            if (pm && h < 12) h += 12;
-            if (!pm && h == 12) h = 0;
-            return String.format("%02d:%02d", h, m);
-        }
-        return s; // fallback
+        return DoctorService.normalizeSlot(raw);
     }
 }
@@ -0,0 +1,201 @@
+package com.project.back_end.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Short-lived, in-memory reservations of a doctor slot while a patient completes booking.
+ * - No database writes: holds live in maps keyed by slot and by doctor-day
+ * - Expiry via a hashed timer wheel (1s ticks): each tick only touches the holds due in that bucket
+ * - A hold is checked against its deadline on every read too, so a late tick never extends it
+ */
+@Service
+public class SlotHoldService {
+
+    private static final DateTimeFormatter HHmm = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int WHEEL_SIZE = 512;
+
+    private final long ttlSeconds;
+    private final int maxHoldsPerHolder;
+
+    private final Map<String, Hold> bySlot = new ConcurrentHashMap<>();
+    private final Map<String, Hold> byId = new ConcurrentHashMap<>();
+    private final Map<String, Set<Hold>> byDoctorDay = new ConcurrentHashMap<>();
+
+    private final List<Queue<Hold>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private long tick; // advanced only by the scheduler thread
+
+    public SlotHoldService(@Value("${appointments.hold.ttl-seconds:300}") long ttlSeconds,
+                           @Value("${appointments.hold.max-per-holder:2}") int maxHoldsPerHolder) {
+        this.ttlSeconds = ttlSeconds;
+        this.maxHoldsPerHolder = maxHoldsPerHolder;
+        for (int i = 0; i < WHEEL_SIZE; i++) wheel.add(new ConcurrentLinkedQueue<>());
+    }
+
+    /* ===== place: PLACED with the hold (new or the holder's own), HELD_BY_OTHER or LIMIT_REACHED without ===== */
+    public Placement place(Long doctorId, LocalDateTime time, String holder) {
+        LocalDateTime slot = time.truncatedTo(ChronoUnit.MINUTES);
+        String key = slotKey(doctorId, slot);
+        Instant now = Instant.now();
+
+        Hold existing = bySlot.get(key);
+        if (existing != null && existing.isLive(now)) {
+            return existing.holder.equals(holder) ? Placement.placed(existing) : Placement.HELD_BY_OTHER;
+        }
+        if (countLive(holder, now) >= maxHoldsPerHolder) return Placement.LIMIT_REACHED;
+
+        Hold hold = new Hold(UUID.randomUUID().toString(), doctorId, slot, holder, now.plusSeconds(ttlSeconds));
+        Hold winner = bySlot.compute(key, (k, cur) -> (cur == null || !cur.isLive(now)) ? hold : cur);
+        if (winner != hold) {
+            return winner.holder.equals(holder) ? Placement.placed(winner) : Placement.HELD_BY_OTHER;
+        }
+        if (existing != null) unindex(existing);
+        byId.put(hold.id, hold);
+        byDoctorDay.computeIfAbsent(dayKey(doctorId, slot.toLocalDate()), k -> ConcurrentHashMap.newKeySet()).add(hold);
+        schedule(hold);
+        return Placement.placed(hold);
+    }
+
+    /* ===== release by id (only the holder) ===== */
+    public boolean release(String holdId, String holder) {
+        Hold hold = byId.get(holdId);
+        if (hold == null || !hold.holder.equals(holder)) return false;
+        remove(hold);
+        return true;
+    }
+
+    /* ===== converted to an appointment: drop the hold on that slot ===== */
+    public void consume(Long doctorId, LocalDateTime time) {
+        Hold hold = bySlot.get(slotKey(doctorId, time.truncatedTo(ChronoUnit.MINUTES)));
+        if (hold != null) remove(hold);
+    }
+
+    /* ===== true if someone other than `holder` (null = anyone) holds the slot ===== */
+    public boolean isHeldByOther(Long doctorId, LocalDateTime time, String holder) {
+        Hold hold = bySlot.get(slotKey(doctorId, time.truncatedTo(ChronoUnit.MINUTES)));
+        return hold != null && hold.isLive(Instant.now()) && !hold.holder.equals(holder);
+    }
+
+    /* ===== "HH:mm" times on a doctor-day held by anyone other than `holder` ===== */
+    public Set<String> heldTimes(Long doctorId, LocalDate date, String holder) {
+        Set<Hold> holds = byDoctorDay.get(dayKey(doctorId, date));
+        if (holds == null || holds.isEmpty()) return Set.of();
+        Instant now = Instant.now();
+        Set<String> out = new HashSet<>();
+        for (Hold h : holds) {
+            if (h.isLive(now) && !h.holder.equals(holder)) out.add(h.time.format(HHmm));
+        }
+        return out;
+    }
+
+    /* ===== timer wheel ===== */
+    @Scheduled(fixedRate = 1000)
+    public void advance() {
+        long current;
+        synchronized (this) {
+            current = ++tick;
+        }
+        Queue<Hold> bucket = wheel.get((int) (current % WHEEL_SIZE));
+        Instant now = Instant.now();
+        for (Iterator<Hold> it = bucket.iterator(); it.hasNext(); ) {
+            Hold h = it.next();
+            if (h.removed) {
+                it.remove();
+            } else if (h.rounds > 0) {
+                h.rounds--; // due on a later lap
+            } else {
+                it.remove();
+                if (h.isLive(now)) {
+                    wheel.get((int) ((current + 1) % WHEEL_SIZE)).add(h); // tick ran early; retry next second
+                } else {
+                    remove(h);
+                }
+            }
+        }
+    }
+
+    /* ===== helpers ===== */
+
+    private synchronized void schedule(Hold h) {
+        long ticks = Math.max(1, ttlSeconds);
+        h.rounds = (int) ((ticks - 1) / WHEEL_SIZE);
+        wheel.get((int) ((tick + ticks) % WHEEL_SIZE)).add(h);
+    }
+
+    private void remove(Hold h) {
+        h.removed = true;
+        bySlot.remove(slotKey(h.doctorId, h.time), h);
+        unindex(h);
+    }
+
+    private void unindex(Hold h) {
+        byId.remove(h.id);
+        byDoctorDay.computeIfPresent(dayKey(h.doctorId, h.time.toLocalDate()), (k, set) -> {
+            set.remove(h);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private long countLive(String holder, Instant now) {
+        return byId.values().stream().filter(h -> h.holder.equals(holder) && h.isLive(now)).count();
+    }
+
+    private String slotKey(Long doctorId, LocalDateTime time) {
+        return doctorId + "|" + time;
+    }
+
+    private String dayKey(Long doctorId, LocalDate date) {
+        return doctorId + "|" + date;
+    }
+
+    // outcome of place(): result code plus the hold when PLACED
+    public record Placement(int result, Hold hold) {
+        public static final int PLACED = 1;
+        public static final int HELD = 0;     // slot held by another holder
+        public static final int LIMIT = -1;   // holder already has max-per-holder live holds
+
+        static final Placement HELD_BY_OTHER = new Placement(HELD, null);
+        static final Placement LIMIT_REACHED = new Placement(LIMIT, null);
+
+        static Placement placed(Hold hold) {
+            return new Placement(PLACED, hold);
+        }
+    }
+
+    public static final class Hold {
+        private final String id;
+        private final Long doctorId;
+        private final LocalDateTime time;
+        private final String holder;
+        private final Instant expiresAt;
+        private volatile boolean removed;
+        private int rounds;
+
+        Hold(String id, Long doctorId, LocalDateTime time, String holder, Instant expiresAt) {
+            this.id = id;
+            this.doctorId = doctorId;
+            this.time = time;
+            this.holder = holder;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isLive(Instant now) {
+            return !removed && now.isBefore(expiresAt);
+        }
+
+        public String getId() { return id; }
+        public Long getDoctorId() { return doctorId; }
+        public LocalDateTime getTime() { return time; }
+        public Instant getExpiresAt() { return expiresAt; }
+    }
+}
@@ -0,0 +1,199 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.RevokedToken;
+import com.project.back_end.repo.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token revocation list persisted in revoked_token.
+ * - Revoked jtis go into an in-memory Bloom filter; a token whose jti is not in the
+ *   filter is definitely not revoked (no I/O). Only "maybe" answers hit the table.
+ * - Per-user revocations ("every token issued before T") are few and kept in a map.
+ * - Rebuilt from the table at startup and after each prune; rows written by other
+ *   nodes are picked up every refresh-ms by revoked_at, re-reading refresh-overlap-ms before the
+ *   previous refresh: ids are not committed in order, and a row can commit (or come from a node
+ *   whose clock is behind) after a later one was read.
+ * - A revocation made inside a transaction reaches this node's map only after it commits.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final Duration overlap;
+
+    // swapped as a pair on rebuild; written under the instance lock, read lock-free
+    private volatile BloomFilter revokedIds;
+    private volatile Map<String, Instant> revokedBefore = new ConcurrentHashMap<>();
+    private LocalDateTime loadedUntil;  // start of the last successful load; null until the first
+    private int loadedIds = 0;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${auth.revocation.expected:100000}") int expectedRevocations,
+                                  @Value("${auth.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  @Value("${auth.revocation.refresh-overlap-ms:60000}") long overlapMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.overlap = Duration.ofMillis(overlapMs);
+        this.revokedIds = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /* ===== true if the token (jti, subject, issuedAt) has been revoked ===== */
+    public boolean isRevoked(String jti, String subject, Instant issuedAt) {
+        Map<String, Instant> subjects = revokedBefore;
+        Instant before = subject != null ? subjects.get(subject) : null;
+        if (before != null && (issuedAt == null || issuedAt.isBefore(before))) return true;
+        if (jti == null || !revokedIds.mightContain(jti)) return false;
+        return revokedTokenRepository.existsByTokenKey(jti);
+    }
+
+    /* ===== revoke one token (logout) ===== */
+    public synchronized void revokeToken(String jti, Instant expiresAt) {
+        if (jti == null) return;
+        revokedTokenRepository.save(new RevokedToken(jti, LocalDateTime.now(), toLocal(expiresAt)));
+        revokedIds.put(jti);
+    }
+
+    /* ===== revoke every token of a user issued until now (password change, deletion) =====
+       - inside a transaction (doctor update/delete) the map changes after commit, so a rollback
+         does not leave this node revoking tokens the others accept */
+    public void revokeSubject(String subject) {
+        if (subject == null) return;
+        // JWT iat has second precision: tokens issued in this same second stay valid
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant expires = now.plusMillis(TokenService.TOKEN_TTL_MS);
+        revokedTokenRepository.save(new RevokedToken(RevokedToken.SUBJECT_PREFIX + subject, toLocal(now), toLocal(expires)));
+        Runnable apply = () -> {
+            synchronized (this) {
+                revokedBefore.merge(subject, now, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /* ===== startup: load the whole (unexpired) list ===== */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialLoad() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Loading token revocation list failed", e);
+        }
+    }
+
+    /* ===== pick up revocations written by other nodes ===== */
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-ms:5000}")
+    public synchronized void refresh() {
+        try {
+            if (loadedUntil == null) {
+                rebuild(); // startup load failed
+                return;
+            }
+            LocalDateTime start = LocalDateTime.now();
+            loadedIds += load(revokedIds, revokedBefore, loadedUntil.minus(overlap));
+            loadedUntil = start;
+            if (loadedIds > revokedIds.expectedInsertions()) rebuild(); // grown past sizing: resize
+        } catch (Exception e) {
+            log.warn("Refreshing token revocation list failed: {}", e.getMessage());
+        }
+    }
+
+    /* ===== drop entries whose tokens have expired anyway, then rebuild the filter ===== */
+    @Scheduled(cron = "${auth.revocation.prune-cron:0 15 * * * *}")
+    public void prune() {
+        try {
+            int removed = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+            if (removed > 0) {
+                rebuild();
+                log.info("Pruned {} expired token revocations", removed);
+            }
+        } catch (Exception e) {
+            log.error("Pruning token revocations failed", e);
+        }
+    }
+
+    /* ===== helpers ===== */
+
+    private synchronized void rebuild() {
+        // load into a fresh filter/map and swap, so readers never see a half-built list
+        int size = Math.max(expectedRevocations, loadedIds * 2);
+        while (true) {
+            BloomFilter ids = new BloomFilter(size, falsePositiveRate);
+            Map<String, Instant> subjects = new ConcurrentHashMap<>();
+            LocalDateTime start = LocalDateTime.now();
+            int count = load(ids, subjects, null);
+            if (count > ids.expectedInsertions()) {
+                size = count * 2; // more entries than the filter was sized for
+                continue;
+            }
+            revokedIds = ids;
+            revokedBefore = subjects;
+            loadedIds = count;
+            loadedUntil = start;
+            return;
+        }
+    }
+
+    // adds unexpired rows revoked at or after since (all of them when since is null), paged by id;
+    // returns the number of jtis new to the filter (rows re-read by the overlap are not counted again)
+    private int load(BloomFilter ids, Map<String, Instant> subjects, LocalDateTime since) {
+        LocalDateTime now = LocalDateTime.now();
+        int added = 0;
+        long lastId = 0;
+        List<RevokedToken> page;
+        while (!(page = since == null
+                ? revokedTokenRepository.findTop5000ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(lastId, now)
+                : revokedTokenRepository.findTop5000ByRevokedAtGreaterThanEqualAndIdGreaterThanAndExpiresAtAfterOrderByIdAsc(
+                        since, lastId, now)).isEmpty()) {
+            for (RevokedToken r : page) {
+                if (r.isSubject()) {
+                    String subject = r.getTokenKey().substring(RevokedToken.SUBJECT_PREFIX.length());
+                    subjects.merge(subject, toInstant(r.getRevokedAt()), (a, b) -> a.isAfter(b) ? a : b);
+                } else {
+                    if (!ids.mightContain(r.getTokenKey())) added++;
+                    ids.put(r.getTokenKey());
+                }
+                lastId = r.getId();
+            }
+        }
+        return added;
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
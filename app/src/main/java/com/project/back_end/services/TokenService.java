@@ -16,33 +16,45 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 @Component
 public class TokenService {
 
+    public static final long TOKEN_TTL_MS = 7 * 24 * 60 * 60 * 1000L; // 7 days
+
+    // token + role already validated by the enclosing batch request (BatchService)
+    private static final ThreadLocal<String> PREVALIDATED = new ThreadLocal<>();
+
     private final AdminRepository adminRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final TokenRevocationService revocationService;
 
     @Value("${jwt.secret}")
     private String secret;
 
     public TokenService(AdminRepository adminRepository,
                         DoctorRepository doctorRepository,
-                        PatientRepository patientRepository) {
+                        PatientRepository patientRepository,
+                        TokenRevocationService revocationService) {
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
+        this.revocationService = revocationService;
     }
 
     /* ====================== generateToken ====================== */
     public String generateToken(String identifier) {
         Date now = new Date();
-        Date expiry = new Date(now.getTime() + 7 * 24 * 60 * 60 * 1000L); // 7 days
+        Date expiry = new Date(now.getTime() + TOKEN_TTL_MS);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString()) // jti: handle for revocation
                 .subject(identifier)
                 .issuedAt(now)
                 .expiration(expiry)
@@ -51,22 +63,42 @@ public class TokenService {
     }
 
     /* ====================== extractIdentifier ====================== */
+    // null for invalid, expired or revoked tokens
     public String extractIdentifier(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claims.getSubject();
-        } catch (Exception e) {
-            return null;
+        Claims claims = parse(token);
+        if (claims == null) return null;
+        Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        if (revocationService.isRevoked(claims.getId(), claims.getSubject(), issuedAt)) return null;
+        return claims.getSubject();
+    }
+
+    /* ====================== revokeToken ====================== */
+    // logout: this token stops working; false if it was not a valid token
+    public boolean revokeToken(String token) {
+        String identifier = extractIdentifier(token);
+        if (identifier == null) return false;
+        Claims claims = parse(token);
+        if (claims.getId() != null) {
+            revocationService.revokeToken(claims.getId(), claims.getExpiration().toInstant());
+        } else {
+            revocationService.revokeSubject(identifier); // token issued before jtis existed
         }
+        return true;
+    }
+
+    /* ====================== revokeAllTokens ====================== */
+    // every token issued so far for this identifier (password change, account removal)
+    public void revokeAllTokens(String identifier) {
+        revocationService.revokeSubject(identifier);
     }
 
     /* ====================== validateToken ====================== */
     public boolean validateToken(String token, String userType) {
         try {
+            if (token != null && userType != null
+                    && prevalidatedKey(token, userType).equals(PREVALIDATED.get())) {
+                return true;
+            }
             String identifier = extractIdentifier(token);
             if (identifier == null) return false;
 
@@ -92,6 +124,36 @@ public class TokenService {
         }
     }
 
+    /* ====================== withValidatedToken ====================== */
+    // Runs action with token/userType treated as valid on this thread, so the sub-requests
+    // of a batch don't repeat the lookup; other tokens or roles are still checked in full
+    public <T> T withValidatedToken(String token, String userType, Supplier<T> action) {
+        String previous = PREVALIDATED.get();
+        PREVALIDATED.set(prevalidatedKey(token, userType));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) PREVALIDATED.remove();
+            else PREVALIDATED.set(previous);
+        }
+    }
+
+    private static String prevalidatedKey(String token, String userType) {
+        return userType.toLowerCase() + ":" + token;
+    }
+
+    private Claims parse(String token) {
+        try {
+            return Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /* ====================== getSigningKey ====================== */
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
@@ -0,0 +1,30 @@
+package com.project.back_end.services;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells a duplicate-key violation of one of our named unique constraints (uk_*) apart from other
+ * integrity errors (not-null, length, foreign key), which must not be reported as "already exists".
+ */
+final class UniqueConstraints {
+
+    private UniqueConstraints() {}
+
+    // true if e was caused by one of the given unique constraints
+    // (MySQL reports them as "table.uk_name" in the constraint name and "for key 'table.uk_name'" in the message)
+    static boolean violated(DataIntegrityViolationException e, String... constraints) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String source = t instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+                    ? cve.getConstraintName() : t.getMessage();
+            if (source == null) continue;
+            String lower = source.toLowerCase(Locale.ROOT);
+            for (String constraint : constraints) {
+                if (lower.contains(constraint.toLowerCase(Locale.ROOT))) return true;
+            }
+        }
+        return false;
+    }
+}
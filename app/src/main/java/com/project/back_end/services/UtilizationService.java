@@ -0,0 +1,218 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.UtilizationTotals;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.UtilizationRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Utilization analytics from the utilization_rollup table.
+ * - Counters change in the same transaction as the appointment write (book/update/cancel/status)
+ * - A range is answered from month rows for whole months plus day rows for the partial
+ *   months at either end, so cost is bounded by doctors × (months + 62) rows for any range
+ * - reconcile() rebuilds booked/completed from appointment + appointment_archive month by month
+ */
+@Service
+public class UtilizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(UtilizationService.class);
+
+    static final String DAY = "D";
+    static final String MONTH = "M";
+
+    private final UtilizationRollupRepository rollupRepository;
+    private final DoctorRepository doctorRepository;
+    private final TransactionTemplate tx;
+
+    public UtilizationService(UtilizationRollupRepository rollupRepository,
+                              DoctorRepository doctorRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.doctorRepository = doctorRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /* ============================================================
+       Incremental updates (joined to the caller's transaction)
+       ============================================================ */
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void booked(Long doctorId, LocalDateTime time, Integer status) {
+        add(doctorId, time, 1, isCompleted(status) ? 1 : 0, 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancelled(Long doctorId, LocalDateTime time, Integer status) {
+        add(doctorId, time, -1, isCompleted(status) ? -1 : 0, 1);
+    }
+
+    // appointment moved and/or changed status: take out the old contribution, add the new one
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Long oldDoctorId, LocalDateTime oldTime, Integer oldStatus,
+                        Long newDoctorId, LocalDateTime newTime, Integer newStatus) {
+        if (Objects.equals(oldDoctorId, newDoctorId) && sameDay(oldTime, newTime)) {
+            int delta = (isCompleted(newStatus) ? 1 : 0) - (isCompleted(oldStatus) ? 1 : 0);
+            if (delta != 0) add(newDoctorId, newTime, 0, delta, 0);
+            return;
+        }
+        add(oldDoctorId, oldTime, -1, isCompleted(oldStatus) ? -1 : 0, 0);
+        add(newDoctorId, newTime, 1, isCompleted(newStatus) ? 1 : 0, 0);
+    }
+
+    /* ============================================================
+       getUtilization
+       - per doctor: booked, completed, cancelled, slots (availableTimes × days),
+         fillRate = booked / slots, completionRate = completed / booked
+       - slots use each doctor's current availableTimes
+       ============================================================ */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUtilization(LocalDate from, LocalDate to) {
+        Map<Long, long[]> sums = new HashMap<>();
+
+        LocalDate firstFullMonth = from.getDayOfMonth() == 1 ? from : from.plusMonths(1).withDayOfMonth(1);
+        LocalDate lastFullMonthEnd = to.plusDays(1).getDayOfMonth() == 1 ? to : to.withDayOfMonth(1).minusDays(1);
+
+        if (!firstFullMonth.isAfter(lastFullMonthEnd)) {
+            accumulate(sums, rollupRepository.sumByDoctor(MONTH, firstFullMonth, lastFullMonthEnd.withDayOfMonth(1)));
+            if (from.isBefore(firstFullMonth)) {
+                accumulate(sums, rollupRepository.sumByDoctor(DAY, from, firstFullMonth.minusDays(1)));
+            }
+            if (to.isAfter(lastFullMonthEnd)) {
+                accumulate(sums, rollupRepository.sumByDoctor(DAY, lastFullMonthEnd.plusDays(1), to));
+            }
+        } else {
+            accumulate(sums, rollupRepository.sumByDoctor(DAY, from, to));
+        }
+
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        long[] total = new long[4];
+        List<Map<String, Object>> doctors = new ArrayList<>();
+        for (Object[] d : doctorRepository.findSlotCounts()) {
+            Long doctorId = (Long) d[0];
+            long[] s = sums.getOrDefault(doctorId, new long[3]);
+            long slots = ((Number) d[3]).longValue() * days;
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("doctorId", doctorId);
+            row.put("doctorName", d[1]);
+            row.put("specialty", d[2]);
+            putCounts(row, s[0], s[1], s[2], slots);
+            doctors.add(row);
+
+            total[0] += s[0];
+            total[1] += s[1];
+            total[2] += s[2];
+            total[3] += slots;
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        putCounts(totals, total[0], total[1], total[2], total[3]);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("from", from);
+        body.put("to", to);
+        body.put("doctors", doctors);
+        body.put("totals", totals);
+        return body;
+    }
+
+    /* ============================================================
+       reconcile
+       - nightly, and at startup when the table is still empty
+       - one short transaction per month; cancellations are kept as recorded
+       ============================================================ */
+    @Scheduled(cron = "${utilization.reconcile.cron:0 0 4 * * *}")
+    public void reconcile() {
+        LocalDateTime first = min(rollupRepository.findFirstLiveTime(), rollupRepository.findFirstArchivedTime());
+        LocalDateTime last = max(rollupRepository.findLastLiveTime(), rollupRepository.findLastArchivedTime());
+        if (first == null || last == null) return;
+
+        int months = 0;
+        try {
+            for (LocalDate month = first.toLocalDate().withDayOfMonth(1);
+                 !month.isAfter(last.toLocalDate()); month = month.plusMonths(1)) {
+                LocalDate start = month;
+                LocalDate end = month.plusMonths(1);
+                tx.executeWithoutResult(status -> {
+                    rollupRepository.resetCounts(DAY, start, end);
+                    rollupRepository.resetCounts(MONTH, start, end);
+                    rollupRepository.recount(DAY, start.atStartOfDay(), end.atStartOfDay());
+                    rollupRepository.recount(MONTH, start.atStartOfDay(), end.atStartOfDay());
+                });
+                months++;
+            }
+            log.info("Reconciled utilization rollups for {} months", months);
+        } catch (Exception e) {
+            log.error("Utilization reconcile stopped after {} months", months, e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialBuild() {
+        try {
+            if (rollupRepository.count() == 0) reconcile();
+        } catch (Exception e) {
+            log.error("Initial utilization rollup build failed", e);
+        }
+    }
+
+    /* ===== helpers ===== */
+
+    private void add(Long doctorId, LocalDateTime time, int booked, int completed, int cancelled) {
+        if (doctorId == null || time == null) return;
+        LocalDate day = time.toLocalDate();
+        rollupRepository.increment(doctorId, day, day.withDayOfMonth(1), booked, completed, cancelled);
+    }
+
+    private void accumulate(Map<Long, long[]> sums, List<UtilizationTotals> rows) {
+        for (UtilizationTotals t : rows) {
+            long[] s = sums.computeIfAbsent(t.getDoctorId(), k -> new long[3]);
+            s[0] += t.getBooked();
+            s[1] += t.getCompleted();
+            s[2] += t.getCancelled();
+        }
+    }
+
+    private void putCounts(Map<String, Object> m, long booked, long completed, long cancelled, long slots) {
+        m.put("booked", booked);
+        m.put("completed", completed);
+        m.put("cancelled", cancelled);
+        m.put("slots", slots);
+        m.put("fillRate", slots > 0 ? (double) booked / slots : 0.0);
+        m.put("completionRate", booked > 0 ? (double) completed / booked : 0.0);
+    }
+
+    private static boolean isCompleted(Integer status) {
+        return status != null && status == 1;
+    }
+
+    private static boolean sameDay(LocalDateTime a, LocalDateTime b) {
+        return a != null && b != null && a.toLocalDate().equals(b.toLocalDate());
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,52 @@
+-- Schema as created by ddl-auto=update before versioned migrations.
+-- Existing databases start at version 1 (spring.flyway.baseline-on-migrate); new ones run this file.
+
+create table admin (
+    id bigint not null auto_increment,
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table doctor (
+    id bigint not null auto_increment,
+    specialty varchar(50) not null,
+    name varchar(100) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table doctor_available_times (
+    doctor_id bigint not null,
+    available_times varchar(255)
+) engine=InnoDB;
+
+create table patient (
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    address varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table appointment (
+    status integer not null,
+    appointment_time datetime(6) not null,
+    doctor_id bigint not null,
+    id bigint not null auto_increment,
+    patient_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table appointment
+    add constraint FKoeb98n82eph1dx43v3y2bcmsl foreign key (doctor_id) references doctor (id);
+
+alter table appointment
+    add constraint FK4apif2ewfyf14077ichee8g06 foreign key (patient_id) references patient (id);
+
+alter table doctor_available_times
+    add constraint FKdgs10srq75djpwnb9c22k3lmk foreign key (doctor_id) references doctor (id);
@@ -0,0 +1,11 @@
+-- Uniqueness enforced by the database (services map uk_* violations to "already exists").
+-- Fails if existing rows already hold duplicates: resolve them before migrating.
+
+alter table doctor
+    add constraint uk_doctor_email unique (email);
+
+alter table patient
+    add constraint uk_patient_email unique (email);
+
+alter table patient
+    add constraint uk_patient_phone unique (phone);
@@ -0,0 +1,17 @@
+-- Soft-deleted doctors and the progress of their background purge (DoctorPurgeService)
+
+alter table doctor
+    add column deleted boolean default false not null;
+
+create table doctor_purge (
+    batches integer not null,
+    appointments_deleted bigint not null,
+    doctor_id bigint not null,
+    prescriptions_deleted bigint not null,
+    updated_at datetime(6) not null,
+    state varchar(16) not null,
+    primary key (doctor_id)
+) engine=InnoDB;
+
+create index idx_doctor_purge_state_updated
+    on doctor_purge (state, updated_at);
@@ -0,0 +1,26 @@
+-- Old completed appointments are moved to appointment_archive (AppointmentArchiveService)
+
+create index idx_appointment_status_time
+    on appointment (status, appointment_time);
+
+create table appointment_archive (
+    status integer,
+    appointment_time datetime(6),
+    archived_at datetime(6),
+    doctor_id bigint not null,
+    id bigint not null,
+    patient_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_archive_patient_time
+    on appointment_archive (patient_id, appointment_time);
+
+create index idx_archive_doctor_time
+    on appointment_archive (doctor_id, appointment_time);
+
+alter table appointment_archive
+    add constraint FKeio6mmtharjsqjbk2iqb9bvur foreign key (doctor_id) references doctor (id);
+
+alter table appointment_archive
+    add constraint FKk5p5mwxwp3qij7uwqkoy66n26 foreign key (patient_id) references patient (id);
@@ -0,0 +1,20 @@
+-- Normalized copies of names for indexed search.
+-- Existing rows are filled by SearchColumnBackfill on startup (accent folding is done in Java).
+
+alter table doctor
+    add column specialty_search varchar(50);
+
+alter table doctor
+    add column name_search varchar(100);
+
+alter table patient
+    add column name_search varchar(100);
+
+create index idx_doctor_specialty_name_search
+    on doctor (specialty_search, name_search);
+
+create index idx_doctor_name_search
+    on doctor (name_search);
+
+create index idx_patient_name_search
+    on patient (name_search);
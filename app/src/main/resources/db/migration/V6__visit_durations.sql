@@ -0,0 +1,11 @@
+-- Per-doctor visit length and the duration fixed at booking time.
+-- Null means the default length (appointments.default-visit-minutes / Appointment.DEFAULT_DURATION_MINUTES).
+
+alter table doctor
+    add column visit_minutes integer;
+
+alter table appointment
+    add column duration_minutes integer;
+
+alter table appointment_archive
+    add column duration_minutes integer;
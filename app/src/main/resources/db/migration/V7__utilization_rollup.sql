@@ -0,0 +1,14 @@
+-- Per-doctor booked/completed/cancelled counts by day and month (UtilizationService)
+
+create table utilization_rollup (
+    booked integer not null,
+    cancelled integer not null,
+    completed integer not null,
+    period varchar(1) not null,
+    period_start date not null,
+    doctor_id bigint not null,
+    primary key (period, period_start, doctor_id)
+) engine=InnoDB;
+
+create index idx_rollup_period_start
+    on utilization_rollup (period, period_start, doctor_id, booked, completed, cancelled);
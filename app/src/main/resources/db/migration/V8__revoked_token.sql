@@ -0,0 +1,15 @@
+-- Revoked JWTs until they expire (TokenRevocationService)
+
+create table revoked_token (
+    expires_at datetime(6) not null,
+    id bigint not null auto_increment,
+    revoked_at datetime(6) not null,
+    token_key varchar(120) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_revoked_token_key
+    on revoked_token (token_key);
+
+create index idx_revoked_token_expires
+    on revoked_token (expires_at);
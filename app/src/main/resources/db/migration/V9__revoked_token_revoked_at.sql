@@ -0,0 +1,4 @@
+-- Cross-node refresh reads revocations by revoked_at (with an overlap), not by id
+
+create index idx_revoked_token_revoked_at
+    on revoked_token (revoked_at);
@@ -12,9 +12,15 @@ if (addDocBtn) {
   addDocBtn.addEventListener("click", () => openModal("addDoctor"));
 }
 
-// Load doctor cards on page load
+// Load doctor cards on page load; the first page is inlined by the server (DashboardController)
 document.addEventListener("DOMContentLoaded", () => {
-  loadDoctorCards();
+  const initial = window.__INITIAL_DOCTORS__;
+  if (initial) {
+    renderDoctorCards(initial.doctors); // re-create the cards with their button handlers
+    if (initial.hasMore) loadDoctorCards();
+  } else {
+    loadDoctorCards();
+  }
 });
 
 // Load all doctors and render
@@ -5,13 +5,23 @@
     localStorage.setItem("userRole", role);
   }
 
+  // Revoke the token server-side; keepalive lets the request finish during navigation
+  function revokeToken(role) {
+    const token = localStorage.getItem("token");
+    if (!token || !role) return;
+    const path = role === "loggedPatient" ? "patient" : role;
+    fetch(`/${path}/logout/${token}`, { method: "POST", keepalive: true }).catch(() => {});
+  }
+
   function logout() {
+    revokeToken(localStorage.getItem("userRole"));
     localStorage.removeItem("token");
     localStorage.removeItem("userRole");
     window.location.href = "/";
   }
 
   function logoutPatient() {
+    revokeToken("patient");
     localStorage.removeItem("token");
     localStorage.setItem("userRole", "patient"); // keep base role so login/sign-up show
     window.location.href = "/pages/patientDashboard.html";
@@ -1,11 +1,14 @@
-import {getAllAppointments} from "./services/appointmentRecordService.js";
+import {getAllAppointments, subscribeAppointments} from "./services/appointmentRecordService.js";
 import {createPatientRow} from "./components/patientRows.js";
 
 // Global variables
 const tableBody = document.getElementById("patientTableBody");
-let selectedDate = new Date().toISOString().split("T")[0];
+// Today's rows come rendered and inlined by the server (DashboardController); its date wins
+const initialAppointments = window.__INITIAL_APPOINTMENTS__ || null;
+let selectedDate = initialAppointments ? initialAppointments.date : new Date().toISOString().split("T")[0];
 const token = localStorage.getItem("token");
 let patientName = null;
+let appointmentStream = null;
 
 // Search bar event
 const searchBar = document.getElementById("searchBar");
@@ -25,6 +28,7 @@ if (todayButton) {
     const datePicker = document.getElementById("datePicker");
     if (datePicker) datePicker.value = selectedDate;
     loadAppointments();
+    watchAppointments();
   });
 }
 
@@ -34,6 +38,7 @@ if (datePicker) {
   datePicker.addEventListener("change", (e) => {
     selectedDate = e.target.value;
     loadAppointments();
+    watchAppointments();
   });
 }
 
@@ -45,23 +50,7 @@ async function loadAppointments() {
       patientName,
       token
     );
-    tableBody.innerHTML = "";
-    if (!appointments || appointments.length === 0) {
-      const row = document.createElement("tr");
-      row.innerHTML = `<td colspan="5">No Appointments found for today.</td>`;
-      tableBody.appendChild(row);
-      return;
-    }
-    appointments.forEach((app) => {
-      const patient = {
-        id: app.patientId,
-        name: app.patientName,
-        phone: app.patientPhone,
-        email: app.patientEmail,
-      };
-      const row = createPatientRow(patient, app.id, app.doctorId);
-      tableBody.appendChild(row);
-    });
+    renderAppointments(appointments);
   } catch (error) {
     tableBody.innerHTML = "";
     const row = document.createElement("tr");
@@ -71,7 +60,38 @@ async function loadAppointments() {
   }
 }
 
+function renderAppointments(appointments) {
+  tableBody.innerHTML = "";
+  if (!appointments || appointments.length === 0) {
+    const row = document.createElement("tr");
+    row.innerHTML = `<td colspan="5">No Appointments found for today.</td>`;
+    tableBody.appendChild(row);
+    return;
+  }
+  appointments.forEach((app) => {
+    const patient = {
+      id: app.patientId,
+      name: app.patientName,
+      phone: app.patientPhone,
+      email: app.patientEmail,
+    };
+    const row = createPatientRow(patient, app.id, app.doctorId);
+    tableBody.appendChild(row);
+  });
+}
+
+// Live updates: reload the table when the server pushes a change for the selected day
+function watchAppointments() {
+  if (appointmentStream) appointmentStream.close();
+  appointmentStream = subscribeAppointments(selectedDate, token, () => loadAppointments());
+}
+
 // Initial render
 document.addEventListener("DOMContentLoaded", () => {
-  loadAppointments();
+  if (initialAppointments && initialAppointments.date === selectedDate && !patientName) {
+    renderAppointments(initialAppointments.appointments); // re-create rows with their click handlers
+  } else {
+    loadAppointments();
+  }
+  watchAppointments();
 });
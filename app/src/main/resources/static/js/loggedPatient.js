@@ -2,15 +2,34 @@
 import { getDoctors } from './services/doctorServices.js';
 import { createDoctorCard } from './components/doctorCard.js';
 import { filterDoctors } from './services/doctorServices.js';
-import { bookAppointment } from './services/appointmentRecordService.js';
+import { bookAppointment, holdSlot, releaseHold } from './services/appointmentRecordService.js';
+import { primePatientData } from './services/patientServices.js';
+import { runBatch } from './services/batchService.js';
 
 
 document.addEventListener("DOMContentLoaded", () => {
   loadDoctorCards();
 });
 
+// Doctor list and the patient's own details in one round trip; falls back to a plain fetch
+async function loadDashboardData() {
+  const token = localStorage.getItem("token");
+  if (token) {
+    const results = await runBatch("patient", token, [
+      { id: "doctors", method: "GET", path: "/doctor" },
+      { id: "patient", method: "GET", path: "/patient/{token}" }
+    ]);
+    if (results && results.doctors && results.doctors.status === 200) {
+      const patient = results.patient;
+      if (patient && patient.status === 200) primePatientData(token, patient.body.patient);
+      return results.doctors.body.doctors || [];
+    }
+  }
+  return getDoctors();
+}
+
 function loadDoctorCards() {
-  getDoctors()
+  loadDashboardData()
     .then(doctors => {
       const contentDiv = document.getElementById("content");
       contentDiv.innerHTML = "";
@@ -59,17 +78,47 @@ export function showBookingOverlay(e, doctor, patient) {
 
   setTimeout(() => modalApp.classList.add("active"), 600);
 
-  modalApp.querySelector(".confirm-booking").addEventListener("click", async () => {
+  const token = localStorage.getItem("token");
+  let holdId = null;
+
+  const buildAppointment = () => {
     const date = modalApp.querySelector("#appointment-date").value;
     const time = modalApp.querySelector("#appointment-time").value;
-    const token = localStorage.getItem("token");
+    if (!date || !time) return null;
     const startTime = time.split('-')[0];
-    const appointment = {
+    return {
       doctor: { id: doctor.id },
       patient: { id: patient.id },
       appointmentTime: `${date}T${startTime}:00`,
       status: 0
     };
+  };
+
+  // Hold the chosen slot so nobody else can take it while the patient confirms
+  const refreshHold = async () => {
+    if (holdId) {
+      const previous = holdId;
+      holdId = null;
+      await releaseHold(previous, token); // free it first, or it still counts against the per-patient limit
+    }
+    const appointment = buildAppointment();
+    if (!appointment) return;
+    const hold = await holdSlot(appointment, token);
+    if (hold.success) {
+      holdId = hold.holdId;
+    } else {
+      alert("❌ " + hold.message);
+    }
+  };
+  modalApp.querySelector("#appointment-date").addEventListener("change", refreshHold);
+  modalApp.querySelector("#appointment-time").addEventListener("change", refreshHold);
+
+  modalApp.querySelector(".confirm-booking").addEventListener("click", async () => {
+    const appointment = buildAppointment();
+    if (!appointment) {
+      alert("Please select a date and time");
+      return;
+    }
 
 
     const { success, message } = await bookAppointment(appointment, token);
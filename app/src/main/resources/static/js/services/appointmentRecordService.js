@@ -3,9 +3,12 @@ import { API_BASE_URL } from "../config/config.js";
 const APPOINTMENT_API = `${API_BASE_URL}/appointments`;
 
 
+// Only the columns the doctor's patient table renders
+const APPOINTMENT_LIST_FIELDS = "id,doctorId,patientId,patientName,patientEmail,patientPhone";
+
 //This is for the doctor to get all the patient Appointments
 export async function getAllAppointments(date, patientName, token) {
-  const response = await fetch(`${APPOINTMENT_API}/${date}/${patientName}/${token}`);
+  const response = await fetch(`${APPOINTMENT_API}/${date}/${patientName}/${token}?fields=${APPOINTMENT_LIST_FIELDS}`);
   if (!response.ok) {
     throw new Error("Failed to fetch appointments");
   }
@@ -60,3 +63,47 @@ export async function updateAppointment(appointment, token) {
     };
   }
 }
+
+// Doctor dashboard live updates (SSE). Calls onChange(type, event) for every pushed change.
+// EventSource reconnects on its own if the stream drops; the caller closes it on date change.
+export function subscribeAppointments(date, token, onChange) {
+  const source = new EventSource(`${APPOINTMENT_API}/stream/${date}/${token}`);
+  ["booked", "updated", "cancelled", "status_changed"].forEach((type) => {
+    source.addEventListener(type, (e) => onChange(type, JSON.parse(e.data)));
+  });
+  return source;
+}
+
+// Temporarily reserve a slot while the booking modal is open. Returns { success, holdId, message }.
+export async function holdSlot(appointment, token) {
+  try {
+    const response = await fetch(`${APPOINTMENT_API}/hold/${token}`, {
+      method: "POST",
+      headers: {
+        "Content-Type": "application/json"
+      },
+      body: JSON.stringify(appointment)
+    });
+
+    const data = await response.json();
+    return {
+      success: response.ok,
+      holdId: data.holdId,
+      message: data.message || "Something went wrong"
+    };
+  } catch (error) {
+    console.error("Error while holding slot:", error);
+    return {
+      success: false,
+      message: "Network error. Please try again later."
+    };
+  }
+}
+
+export async function releaseHold(holdId, token) {
+  try {
+    await fetch(`${APPOINTMENT_API}/hold/${holdId}/${token}`, { method: "DELETE" });
+  } catch (error) {
+    console.error("Error while releasing hold:", error);
+  }
+}
@@ -0,0 +1,25 @@
+// batchService.js
+// Runs several API calls in one round trip: POST /batch/{user}/{token}
+// requests = [{ id, method, path, body }] — "{token}" in a path is filled in by the server.
+import { API_BASE_URL } from "../config/config.js";
+
+const BATCH_API = API_BASE_URL + "/batch";
+
+// Returns { [id]: { status, body } }, or null if the batch itself failed
+export async function runBatch(user, token, requests) {
+  try {
+    const response = await fetch(`${BATCH_API}/${user}/${token}`, {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify({ requests })
+    });
+    if (!response.ok) return null;
+    const data = await response.json();
+    const byId = {};
+    (data.responses || []).forEach(r => { byId[r.id] = r; });
+    return byId;
+  } catch (error) {
+    console.error("Error running batch:", error);
+    return null;
+  }
+}
@@ -41,8 +41,16 @@ export async function patientLogin(data) {
 
 }
 
+// Patient details already loaded with the dashboard batch (see loggedPatient.js)
+let primedPatient = null;
+
+export function primePatientData(token, patient) {
+  primedPatient = patient ? { token, patient } : null;
+}
+
 // For getting patient data (name ,id , etc ). Used in booking appointments
 export async function getPatientData(token) {
+  if (primedPatient && primedPatient.token === token) return primedPatient.patient;
   try {
     const response = await fetch(`${PATIENT_API}/${token}`);
     const data = await response.json();
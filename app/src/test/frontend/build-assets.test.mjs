@@ -0,0 +1,95 @@
+// build-assets.test.mjs
+// Builds the application's pages with src/main/frontend/build-assets.mjs into a temp directory and
+// runs the bundles.
+//
+//   npm run test-assets        (node --test src/test/frontend/)
+//
+// Runs in the Maven profile "assets" (test phase, skipped with -DskipTests). Bundles are executed in
+// a node:vm context with a stub DOM.
+
+import { test } from "node:test";
+import assert from "node:assert/strict";
+import { spawnSync } from "node:child_process";
+import { cpSync, existsSync, mkdtempSync, readFileSync, rmSync } from "node:fs";
+import { tmpdir } from "node:os";
+import { dirname, join } from "node:path";
+import { fileURLToPath } from "node:url";
+import { brotliDecompressSync, gunzipSync } from "node:zlib";
+import vm from "node:vm";
+
+const APP = join(dirname(fileURLToPath(import.meta.url)), "..", "..", "..");
+const BUILD = join(APP, "src", "main", "frontend", "build-assets.mjs");
+const RESOURCES = join(APP, "src", "main", "resources");
+
+/* ==== helpers ==== */
+
+function run(out) {
+  const result = spawnSync(process.execPath, [BUILD, out], { encoding: "utf8" });
+  return {
+    out,
+    status: result.status,
+    stderr: result.stderr,
+    read: path => readFileSync(join(out, path), "utf8"),
+    manifest: () => JSON.parse(readFileSync(join(out, "static", "dist", "manifest.json"), "utf8")),
+    dispose: () => rmSync(out, { recursive: true, force: true })
+  };
+}
+
+// runs bundle sources in one context, like a browser page; returns the context
+async function execute(sources, globals = {}) {
+  const context = vm.createContext({ console, ...globals });
+  for (const source of sources) vm.runInContext(source, context);
+  await new Promise(resolve => setImmediate(resolve)); // let dynamic imports settle
+  return context;
+}
+
+/* ==== the application's own pages ==== */
+
+test("application pages build, reference existing precompressed bundles and run", async () => {
+  const out = mkdtempSync(join(tmpdir(), "build-assets-app-"));
+  cpSync(join(RESOURCES, "static"), join(out, "static"), { recursive: true });
+  cpSync(join(RESOURCES, "templates"), join(out, "templates"), { recursive: true });
+  const result = run(out);
+  try {
+    assert.equal(result.status, 0, result.stderr);
+    const manifest = result.manifest();
+    assert.ok(Object.keys(manifest).length > 0);
+
+    for (const [pagePath, urls] of Object.entries(manifest)) {
+      const html = result.read(pagePath);
+      for (const url of urls) {
+        const file = join(out, "static", url);
+        assert.ok(existsSync(file), `${pagePath}: ${url} missing`);
+        assert.ok(html.includes(url), `${pagePath} does not reference ${url}`);
+        const bytes = readFileSync(file);
+        assert.deepEqual(gunzipSync(readFileSync(file + ".gz")), bytes);
+        assert.deepEqual(brotliDecompressSync(readFileSync(file + ".br")), bytes);
+      }
+      assert.doesNotMatch(html, /src\s*=\s*"[^"]*\/js\/[^"]*\.js"/, `${pagePath} still loads an unbundled script`);
+
+      // classic bundle first, then the module bundle, as the browser would; the DOM is a stub that
+      // accepts any access, so this catches syntax errors, broken imports and top-level exceptions
+      const scripts = urls.filter(u => u.endsWith(".js")).map(u => result.read(join("static", u)));
+      await assert.doesNotReject(execute(scripts, stubBrowser()), `${pagePath} failed to run`);
+    }
+  } finally {
+    result.dispose();
+  }
+});
+
+// window/document/localStorage/fetch... as one callable proxy returning itself for any property
+function stubBrowser() {
+  const stub = new Proxy(function () {}, {
+    get: (target, prop) => prop === Symbol.toPrimitive ? () => "" : prop === "then" ? undefined : stub,
+    set: () => true,
+    apply: () => stub,
+    construct: () => stub
+  });
+  const globals = {};
+  for (const name of ["window", "document", "localStorage", "sessionStorage", "location", "navigator",
+                      "fetch", "alert", "confirm", "EventSource", "setTimeout", "setInterval", "clearTimeout",
+                      "history", "URLSearchParams", "FormData", "customElements", "HTMLElement"]) {
+    globals[name] = stub;
+  }
+  return globals;
+}
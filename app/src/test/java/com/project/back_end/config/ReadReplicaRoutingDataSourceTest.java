@@ -0,0 +1,68 @@
+package com.project.back_end.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two local in-memory databases stand in for primary and replica
+class ReadReplicaRoutingDataSourceTest {
+
+	private ReadReplicaRoutingDataSource routing;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate readOnlyTx;
+	private TransactionTemplate writeTx;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = database("primary");
+		DataSource replica = database("replica");
+
+		routing = new ReadReplicaRoutingDataSource(primary, List.of(replica), 5, false);
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		DataSourceTransactionManager txManager = new DataSourceTransactionManager(dataSource);
+
+		jdbc = new JdbcTemplate(dataSource);
+		writeTx = new TransactionTemplate(txManager);
+		readOnlyTx = new TransactionTemplate(txManager);
+		readOnlyTx.setReadOnly(true);
+	}
+
+	@Test
+	void readOnlyTransactionGoesToReplica() {
+		assertEquals("replica", readOnlyTx.execute(s -> whichDatabase()));
+	}
+
+	@Test
+	void readWriteTransactionGoesToPrimary() {
+		assertEquals("primary", writeTx.execute(s -> whichDatabase()));
+	}
+
+	@Test
+	void readOnlyFallsBackToPrimaryWhenReplicaUnhealthy() {
+		routing.setReplicaHealthy(0, false);
+		assertEquals("primary", readOnlyTx.execute(s -> whichDatabase()));
+	}
+
+	private String whichDatabase() {
+		return jdbc.queryForObject("SELECT name FROM marker", String.class);
+	}
+
+	private DataSource database(String name) {
+		DriverManagerDataSource ds = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate init = new JdbcTemplate(ds);
+		init.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(20))");
+		init.execute("DELETE FROM marker");
+		init.update("INSERT INTO marker (name) VALUES (?)", name);
+		return ds;
+	}
+}
@@ -0,0 +1,111 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.BookedInterval;
+import com.project.back_end.repo.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AppointmentIntervalIndexTest {
+
+	private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+
+	private AppointmentRepository repository;
+	private AppointmentIntervalIndex index;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(AppointmentRepository.class);
+		// a 3-hour visit at 08:00 and a 15-minute one at 12:00; legacy row without duration at 14:00
+		when(repository.findIntervalsByDoctorIdAndDay(eq(1L), any(), any())).thenReturn(List.of(
+				new BookedInterval(10L, DAY.atTime(8, 0), 180),
+				new BookedInterval(11L, DAY.atTime(12, 0), 15),
+				new BookedInterval(12L, DAY.atTime(14, 0), null)));
+		index = new AppointmentIntervalIndex(repository, 60);
+	}
+
+	@Test
+	void detectsOverlapWithAppointmentStartingEarlier() {
+		assertTrue(index.overlaps(1L, at(10, 30), at(11, 0), null));
+		assertFalse(index.overlaps(1L, at(11, 0), at(12, 0), null));
+		assertTrue(index.overlaps(1L, at(11, 30), at(12, 30), null));
+		assertFalse(index.overlaps(1L, at(12, 15), at(13, 0), null));
+		assertTrue(index.overlaps(1L, at(14, 59), at(15, 30), null));
+	}
+
+	@Test
+	void excludesOwnAppointment() {
+		assertFalse(index.overlaps(1L, at(9, 0), at(10, 0), 10L));
+	}
+
+	@Test
+	void reservationBlocksAndReleaseFrees() {
+		AppointmentIntervalIndex.Interval r = index.tryReserve(1L, at(16, 0), at(16, 45), null);
+		assertNotNull(r);
+		assertNull(index.tryReserve(1L, at(16, 30), at(17, 0), null));
+		index.release(1L, r);
+		assertNotNull(index.tryReserve(1L, at(16, 30), at(17, 0), null));
+	}
+
+	@Test
+	void removesOnlyTheGivenInterval() {
+		assertTrue(index.overlaps(1L, at(9, 0), at(10, 0), null));
+		index.removeAfterCommit(1L, at(8, 0), 10L);
+		assertFalse(index.overlaps(1L, at(9, 0), at(10, 0), null));
+		assertTrue(index.overlaps(1L, at(12, 0), at(12, 10), null));
+	}
+
+	@Test
+	void loadsEachDoctorDayOnce() {
+		index.overlaps(1L, at(9, 0), at(10, 0), null);
+		index.overlaps(1L, at(15, 0), at(16, 0), null);
+		verify(repository, times(1)).findIntervalsByDoctorIdAndDay(eq(1L), any(), any());
+	}
+
+	@Test
+	void intervalCrossingMidnightBlocksNextDay() {
+		assertNotNull(index.tryReserve(1L, at(23, 30), at(23, 30).plusMinutes(60), null));
+		assertTrue(index.overlaps(1L, DAY.plusDays(1).atTime(0, 15), DAY.plusDays(1).atTime(0, 45), null));
+		assertFalse(index.overlaps(1L, DAY.plusDays(1).atTime(0, 30), DAY.plusDays(1).atTime(1, 0), null));
+	}
+
+	@Test
+	void loadsPreviousDayIntervalRunningPastMidnight() {
+		when(repository.findIntervalsByDoctorIdAndDay(eq(2L), any(), any())).thenReturn(List.of(
+				new BookedInterval(20L, at(23, 0), 120)));
+		assertTrue(index.overlaps(2L, DAY.plusDays(1).atTime(0, 30), DAY.plusDays(1).atTime(1, 0), null));
+		assertFalse(index.overlaps(2L, DAY.plusDays(1).atTime(1, 0), DAY.plusDays(1).atTime(2, 0), null));
+	}
+
+	@Test
+	void reloadKeepsUncommittedReservationUntilRollback() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			assertNotNull(index.tryReserve(1L, at(16, 0), at(16, 45), null));
+			index.invalidate(1L, DAY);
+			assertTrue(index.overlaps(1L, at(16, 30), at(17, 0), null)); // reloaded, reservation carried over
+			verify(repository, times(2)).findIntervalsByDoctorIdAndDay(eq(1L), any(), any());
+
+			for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+				s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+			assertFalse(index.overlaps(1L, at(16, 30), at(17, 0), null));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static LocalDateTime at(int h, int m) {
+		return DAY.atTime(h, m);
+	}
+}
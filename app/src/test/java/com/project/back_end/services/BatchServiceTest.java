@@ -0,0 +1,186 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.BatchRequest;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BatchServiceTest {
+
+	private DispatcherServlet servlet;
+	private List<Filter> filters;
+	private ThreadPoolTaskExecutor executor;
+	private BatchService batchService;
+	private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		servlet = mock(DispatcherServlet.class);
+		doAnswer(inv -> {
+			HttpServletRequest req = inv.getArgument(0);
+			HttpServletResponse res = inv.getArgument(1);
+			calls.add(req.getMethod() + " " + req.getServletPath());
+			switch (req.getServletPath()) {
+				case "/slow" -> Thread.sleep(2_000);
+				case "/boom" -> throw new IllegalStateException("boom");
+				case "/missing" -> res.sendError(404, "No such doctor");
+				default -> {
+					res.setContentType("application/json");
+					res.getWriter().write("{\"path\":\"" + req.getRequestURI() + "\"}");
+				}
+			}
+			return null;
+		}).when(servlet).service(any(ServletRequest.class), any(ServletResponse.class));
+		ObjectProvider<DispatcherServlet> servletProvider = mock(ObjectProvider.class);
+		when(servletProvider.getObject()).thenReturn(servlet);
+
+		filters = new ArrayList<>();
+		ObjectProvider<Filter> filterBeans = mock(ObjectProvider.class);
+		when(filterBeans.orderedStream()).thenAnswer(inv -> filters.stream());
+		ObjectProvider<FilterRegistrationBean<?>> registrations = mock(ObjectProvider.class);
+		when(registrations.orderedStream()).thenAnswer(inv -> Stream.empty());
+
+		TokenService tokenService = mock(TokenService.class);
+		when(tokenService.withValidatedToken(any(), any(), any()))
+				.thenAnswer(inv -> ((Supplier<?>) inv.getArgument(2)).get());
+
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(4);
+		executor.setMaxPoolSize(4);
+		executor.setQueueCapacity(2);
+		executor.initialize();
+		batchService = new BatchService(servletProvider, filterBeans, registrations, executor,
+				tokenService, new ObjectMapper(), 5, 500);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void malformedBatchIsRejectedBeforeAnythingRuns() {
+		assertThrows(IllegalArgumentException.class, () -> run(List.of()));
+		assertThrows(IllegalArgumentException.class, () -> run(Collections.nCopies(6, item("GET", "/doctor"))));
+		assertThrows(IllegalArgumentException.class, () -> run(List.of(item("GET", "/doctor"), item("PATCH", "/doctor"))));
+		assertThrows(IllegalArgumentException.class, () -> run(List.of(item("GET", "doctor"))));
+		assertThrows(IllegalArgumentException.class, () -> run(List.of(item("GET", "//evil.example/x"))));
+		assertThrows(IllegalArgumentException.class, () -> run(List.of(item("POST", "/batch/patient/{token}"))));
+		assertTrue(calls.isEmpty());
+	}
+
+	@Test
+	void responsesKeepRequestOrderAndTokenIsFilledIn() {
+		List<Map<String, Object>> results = run(List.of(
+				item("GET", "/patient/{token}"), item("POST", "/appointments"), item("GET", "/doctor")));
+
+		assertEquals(List.of("0", "1", "2"), results.stream().map(r -> r.get("id")).toList());
+		assertEquals("{\"path\":\"/patient/tok\"}", results.get(0).get("body").toString());
+		assertEquals(200, results.get(1).get("status"));
+		assertEquals(List.of("GET /patient/tok", "POST /appointments", "GET /doctor"), calls);
+	}
+
+	@Test
+	void failuresBecomeEntriesWithoutFailingTheBatch() {
+		List<Map<String, Object>> results = run(List.of(
+				item("GET", "/boom"), item("GET", "/missing"), item("GET", "/doctor")));
+
+		assertEquals(500, results.get(0).get("status"));
+		assertEquals(Map.of("error", "Internal error"), results.get(0).get("body"));
+		assertEquals(404, results.get(1).get("status"));
+		assertEquals(Map.of("error", "No such doctor"), results.get(1).get("body"));
+		assertEquals(200, results.get(2).get("status"));
+	}
+
+	@Test
+	void deadlineCoversEverySubRequestAndNothingStartsAfterIt() {
+		List<Map<String, Object>> results = run(List.of(
+				item("GET", "/slow"), item("POST", "/appointments")));
+
+		assertEquals(504, results.get(0).get("status"));
+		assertEquals(504, results.get(1).get("status"));
+		assertEquals(Map.of("error", "Not run: batch timed out"), results.get(1).get("body"));
+		assertEquals(List.of("GET /slow"), calls);
+	}
+
+	@Test
+	void slowWriteIsReportedAsPossiblyCompleted() {
+		List<Map<String, Object>> results = run(List.of(item("PUT", "/slow")));
+
+		assertEquals(504, results.get(0).get("status"));
+		assertEquals(Map.of("error", "Sub-request timed out; it may still complete"), results.get(0).get("body"));
+	}
+
+	@Test
+	void saturatedPoolAnswers503() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < 6; i++) executor.execute(() -> await(release)); // 4 workers busy, queue full
+		try {
+			List<Map<String, Object>> results = run(List.of(item("GET", "/doctor")));
+			assertEquals(503, results.get(0).get("status"));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void subRequestsPassThroughTheFilters() {
+		filters.add((req, res, chain) -> {
+			if (((HttpServletRequest) req).getServletPath().equals("/doctor")) {
+				((HttpServletResponse) res).sendError(503, "Server busy");
+				return;
+			}
+			chain.doFilter(req, res);
+		});
+
+		List<Map<String, Object>> results = run(List.of(item("GET", "/doctor"), item("GET", "/patient/{token}")));
+
+		assertEquals(503, results.get(0).get("status"));
+		assertEquals(Map.of("error", "Server busy"), results.get(0).get("body"));
+		assertEquals(200, results.get(1).get("status"));
+		assertEquals(List.of("GET /patient/tok"), calls);
+	}
+
+	private List<Map<String, Object>> run(List<BatchRequest.Item> items) {
+		return batchService.execute(new MockHttpServletRequest("POST", "/batch/patient/tok"),
+				new MockHttpServletResponse(), "patient", "tok", items);
+	}
+
+	private static BatchRequest.Item item(String method, String path) {
+		return new BatchRequest.Item(null, method, path, null);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
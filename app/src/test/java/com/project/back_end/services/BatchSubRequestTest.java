@@ -0,0 +1,87 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSubRequestTest {
+
+	private static MockHttpServletRequest batchRequest() {
+		MockHttpServletRequest batch = new MockHttpServletRequest("POST", "/app/batch/patient/t");
+		batch.setContextPath("/app");
+		batch.setContentType("application/json");
+		batch.setContent("{\"requests\":[]}".getBytes(StandardCharsets.UTF_8));
+		batch.addHeader("Accept", "text/html");
+		batch.addHeader("X-Forwarded-For", "10.0.0.1");
+		batch.addHeader("Accept-Language", "de");
+		batch.setAttribute("batch.only", true);
+		batch.setCharacterEncoding("ISO-8859-1");
+		return batch;
+	}
+
+	@Test
+	void requestLineAndQueryAreItsOwn() {
+		BatchSubRequest sub = new BatchSubRequest(batchRequest(), "GET", "/doctor?fields=id,name&q=a%20b&q=c&flag", null);
+
+		assertEquals("GET", sub.getMethod());
+		assertEquals("/app/doctor", sub.getRequestURI());
+		assertEquals("/doctor", sub.getServletPath());
+		assertEquals("fields=id,name&q=a%20b&q=c&flag", sub.getQueryString());
+		assertEquals("id,name", sub.getParameter("fields"));
+		assertArrayEquals(new String[]{"a b", "c"}, sub.getParameterValues("q"));
+		assertEquals("", sub.getParameter("flag"));
+		assertNull(sub.getParameter("requests"));
+		assertEquals("http://localhost:80/app/doctor", sub.getRequestURL().toString());
+	}
+
+	@Test
+	void headersAreCopiedButContentHeadersDescribeTheSubRequest() {
+		BatchSubRequest get = new BatchSubRequest(batchRequest(), "GET", "/doctor", null);
+		assertEquals("10.0.0.1", get.getHeader("x-forwarded-for"));
+		assertEquals("de", get.getHeader("ACCEPT-LANGUAGE"));
+		assertEquals("application/json", get.getHeader("Accept"));
+		assertNull(get.getContentType());
+		assertEquals(0, get.getContentLength());
+		assertFalse(Collections.list(get.getHeaderNames()).contains("content-length"));
+
+		byte[] body = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+		BatchSubRequest post = new BatchSubRequest(batchRequest(), "POST", "/appointments", body);
+		assertEquals("application/json", post.getContentType());
+		assertEquals(List.of("7"), Collections.list(post.getHeaders("Content-Length")));
+		assertEquals(7, post.getIntHeader("content-length"));
+		assertEquals(-1, post.getIntHeader("x-missing"));
+	}
+
+	@Test
+	void bodyIsReadableAsStreamAndReader() throws IOException {
+		byte[] body = "{\"name\":\"Zoë\"}".getBytes(StandardCharsets.UTF_8);
+		BatchSubRequest sub = new BatchSubRequest(batchRequest(), "PUT", "/patient", body);
+
+		assertArrayEquals(body, sub.getInputStream().readAllBytes());
+		assertEquals("{\"name\":\"Zoë\"}", sub.getReader().readLine());
+		assertEquals(0, new BatchSubRequest(batchRequest(), "GET", "/patient", null).getInputStream().readAllBytes().length);
+	}
+
+	@Test
+	void attributesAndEncodingNeverReachTheBatchRequest() {
+		MockHttpServletRequest batch = batchRequest();
+		BatchSubRequest sub = new BatchSubRequest(batch, "GET", "/doctor", null);
+
+		assertNull(sub.getAttribute("batch.only"));
+		sub.setAttribute("sub.only", 1);
+		sub.setCharacterEncoding("UTF-16");
+		assertEquals(1, sub.getAttribute("sub.only"));
+		assertNull(batch.getAttribute("sub.only"));
+		assertEquals("ISO-8859-1", batch.getCharacterEncoding());
+		assertEquals("UTF-8", sub.getCharacterEncoding());
+
+		sub.setAttribute("sub.only", null);
+		assertNull(sub.getAttribute("sub.only"));
+	}
+}
@@ -0,0 +1,70 @@
+package com.project.back_end.services;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSubResponseTest {
+
+	@Test
+	void capturesStatusHeadersAndBodyWithoutTouchingTheBatchResponse() throws IOException {
+		MockHttpServletResponse batch = new MockHttpServletResponse();
+		BatchSubResponse sub = new BatchSubResponse(batch);
+
+		sub.setStatus(201);
+		sub.setContentType("application/json");
+		sub.setHeader("X-Total", "3");
+		sub.addHeader("x-total", "4");
+		sub.getWriter().write("{\"ok\":");
+		sub.getWriter().write("true}");
+
+		assertEquals(201, sub.status());
+		assertEquals("application/json", sub.getContentType());
+		assertEquals(List.of("3", "4"), sub.getHeaders("X-TOTAL"));
+		assertEquals("{\"ok\":true}", new String(sub.body(), StandardCharsets.UTF_8));
+		assertFalse(sub.isCommitted());
+
+		assertEquals(200, batch.getStatus());
+		assertNull(batch.getContentType());
+		assertFalse(batch.containsHeader("X-Total"));
+		assertEquals(0, batch.getContentAsByteArray().length);
+	}
+
+	@Test
+	void sendErrorAndRedirectAreRecorded() throws IOException {
+		BatchSubResponse sub = new BatchSubResponse(new MockHttpServletResponse());
+		sub.sendError(HttpServletResponse.SC_NOT_FOUND, "No such doctor");
+		assertEquals(404, sub.status());
+		assertEquals("No such doctor", sub.errorMessage());
+		assertEquals(0, sub.body().length);
+
+		BatchSubResponse redirect = new BatchSubResponse(new MockHttpServletResponse());
+		redirect.sendRedirect("/login");
+		assertEquals(302, redirect.status());
+		assertEquals("/login", redirect.getHeader("location"));
+	}
+
+	@Test
+	void outputStreamBodyAndResetClearState() throws IOException {
+		BatchSubResponse sub = new BatchSubResponse(new MockHttpServletResponse());
+		sub.setStatus(500);
+		sub.setHeader("X-A", "1");
+		sub.getOutputStream().write(new byte[]{1, 2, 3});
+		sub.reset();
+		assertEquals(200, sub.status());
+		assertFalse(sub.containsHeader("X-A"));
+		assertEquals(0, sub.body().length);
+
+		sub.getOutputStream().write("abc".getBytes(StandardCharsets.UTF_8));
+		sub.setHeader("X-B", "1");
+		sub.setHeader("X-B", null);
+		assertFalse(sub.containsHeader("X-B"));
+		assertEquals("abc", new String(sub.body(), StandardCharsets.UTF_8));
+	}
+}
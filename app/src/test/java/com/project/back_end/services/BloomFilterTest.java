@@ -0,0 +1,35 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+	@Test
+	void noFalseNegatives() {
+		BloomFilter filter = new BloomFilter(10_000, 0.001);
+		String[] ids = new String[10_000];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = UUID.randomUUID().toString();
+			filter.put(ids[i]);
+		}
+		for (String id : ids) {
+			assertTrue(filter.mightContain(id));
+		}
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTarget() {
+		BloomFilter filter = new BloomFilter(10_000, 0.001);
+		for (int i = 0; i < 10_000; i++) filter.put(UUID.randomUUID().toString());
+
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain(UUID.randomUUID().toString())) falsePositives++;
+		}
+		assertTrue(falsePositives < 500, "false positives: " + falsePositives);
+	}
+}
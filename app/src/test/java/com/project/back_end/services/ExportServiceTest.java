@@ -0,0 +1,155 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportServiceTest {
+
+	private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+
+	private SingleConnectionDataSource dataSource;
+	private MongoTemplate mongoTemplate;
+	private ExportService exportService;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new SingleConnectionDataSource("jdbc:h2:mem:export;MODE=MySQL", "sa", "", true);
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE doctor (id BIGINT PRIMARY KEY, name VARCHAR(100), specialty VARCHAR(50))");
+		jdbc.execute("CREATE TABLE patient (id BIGINT PRIMARY KEY, name VARCHAR(100), email VARCHAR(100), phone VARCHAR(10))");
+		for (String table : List.of("appointment", "appointment_archive")) {
+			jdbc.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, appointment_time TIMESTAMP,"
+					+ " duration_minutes INT, status INT, doctor_id BIGINT, patient_id BIGINT)");
+		}
+		jdbc.update("INSERT INTO doctor VALUES (1, 'Dr. A', 'cardiology'), (2, 'Dr. B', 'dermatology')");
+		jdbc.update("INSERT INTO patient VALUES (1, 'Smith, \"Jo\"', 'jo@example.com', '=1+2')");
+		jdbc.update("INSERT INTO appointment VALUES (10, ?, 30, 0, 1, 1), (11, ?, NULL, 0, 2, 1), (12, ?, 30, 0, 1, 1)",
+				DAY.atTime(9, 0), DAY.atTime(8, 0), DAY.plusDays(1).atTime(9, 0));
+		jdbc.update("INSERT INTO appointment_archive VALUES (5, ?, 60, 1, 1, 1)", DAY.atTime(7, 0));
+
+		mongoTemplate = mock(MongoTemplate.class);
+		exportService = new ExportService(dataSource, mongoTemplate, 2, 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+		dataSource.destroy();
+	}
+
+	@Test
+	void appointmentsAsNdjsonLiveThenArchivedInTimeOrder() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long rows = exportService.exportAppointments(DAY, DAY, null, ExportService.NDJSON, out);
+
+		List<String> lines = lines(out);
+		assertEquals(3, rows);
+		assertEquals(3, lines.size());
+		assertTrue(lines.get(0).startsWith("{\"id\":11,\"appointmentTime\":\"2030-01-07T08:00\",\"durationMinutes\":null"));
+		assertTrue(lines.get(1).startsWith("{\"id\":10,"));
+		assertTrue(lines.get(1).contains("\"patientName\":\"Smith, \\\"Jo\\\"\""));
+		assertTrue(lines.get(1).endsWith("\"archived\":false}"));
+		assertTrue(lines.get(2).startsWith("{\"id\":5,"));
+		assertTrue(lines.get(2).endsWith("\"archived\":true}"));
+	}
+
+	@Test
+	void appointmentsAsCsvForOneDoctorAreQuotedAndFormulaSafe() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long rows = exportService.exportAppointments(DAY, DAY.plusDays(1), 1L, ExportService.CSV, out);
+
+		List<String> lines = lines(out);
+		assertEquals(3, rows);
+		assertEquals("id,appointmentTime,durationMinutes,status,doctorId,doctorName,specialty,"
+				+ "patientId,patientName,patientEmail,patientPhone,archived", lines.get(0));
+		assertEquals("10,2030-01-07T09:00,30,0,1,Dr. A,cardiology,1,\"Smith, \"\"Jo\"\"\",jo@example.com,'=1+2,false",
+				lines.get(1));
+		assertTrue(lines.get(2).startsWith("12,2030-01-08T09:00,"));
+		assertTrue(lines.get(3).startsWith("5,2030-01-07T07:00,60,1,"));
+	}
+
+	@Test
+	void clientDisconnectAbortsTheExport() {
+		OutputStream broken = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Broken pipe");
+			}
+		};
+		// the 64 KiB buffer absorbs the rows; the failure surfaces on the final flush
+		assertThrows(IOException.class,
+				() -> exportService.exportAppointments(DAY, DAY, null, ExportService.CSV, broken));
+	}
+
+	@Test
+	void prescriptionsStreamFromTheCursorAndCloseIt() throws IOException {
+		AtomicBoolean closed = new AtomicBoolean();
+		Stream<Prescription> cursor = Stream.of(prescription("p1", 10L, "Ibuprofen"), prescription("p2", 11L, "@cmd"))
+				.onClose(() -> closed.set(true));
+		when(mongoTemplate.stream(any(Query.class), eq(Prescription.class))).thenReturn(cursor);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long rows = exportService.exportPrescriptions(ExportService.CSV, out);
+
+		List<String> lines = lines(out);
+		assertEquals(2, rows);
+		assertEquals("id,appointmentId,patientName,medication,dosage,doctorNotes", lines.get(0));
+		assertEquals("p1,10,Jo,Ibuprofen,1x,", lines.get(1));
+		assertEquals("p2,11,Jo,'@cmd,1x,", lines.get(2));
+		assertTrue(closed.get());
+	}
+
+	@Test
+	void cursorIsClosedWhenWritingFails() {
+		AtomicBoolean closed = new AtomicBoolean();
+		Stream<Prescription> cursor = Stream.generate(() -> prescription("p", 1L, "x".repeat(1024)))
+				.limit(1000)
+				.onClose(() -> closed.set(true));
+		when(mongoTemplate.stream(any(Query.class), eq(Prescription.class))).thenReturn(cursor);
+		OutputStream broken = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Broken pipe");
+			}
+		};
+
+		assertThrows(UncheckedIOException.class, () -> exportService.exportPrescriptions(ExportService.NDJSON, broken));
+		assertTrue(closed.get());
+	}
+
+	private static Prescription prescription(String id, Long appointmentId, String medication) {
+		Prescription p = new Prescription();
+		p.setId(id);
+		p.setAppointmentId(appointmentId);
+		p.setPatientName("Jo");
+		p.setMedication(medication);
+		p.setDosage("1x");
+		return p;
+	}
+
+	private static List<String> lines(ByteArrayOutputStream out) {
+		return List.of(out.toString(StandardCharsets.UTF_8).split("\r?\n"));
+	}
+}
@@ -0,0 +1,35 @@
+package com.project.back_end.services;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UniqueConstraintsTest {
+
+	private static DataIntegrityViolationException violation(String message, String constraint) {
+		SQLIntegrityConstraintViolationException sql = new SQLIntegrityConstraintViolationException(message);
+		return new DataIntegrityViolationException("could not execute statement",
+				new ConstraintViolationException("could not execute statement", sql, constraint));
+	}
+
+	@Test
+	void duplicateOnNamedConstraintMatches() {
+		DataIntegrityViolationException e = violation(
+				"Duplicate entry 'a@b.c' for key 'patient.uk_patient_email'", "patient.uk_patient_email");
+		assertTrue(UniqueConstraints.violated(e, "uk_patient_email", "uk_patient_phone"));
+		assertFalse(UniqueConstraints.violated(e, "uk_doctor_email"));
+	}
+
+	@Test
+	void notNullAndLengthViolationsDoNotMatch() {
+		assertFalse(UniqueConstraints.violated(
+				violation("Column 'email' cannot be null", null), "uk_doctor_email"));
+		assertFalse(UniqueConstraints.violated(
+				violation("Data too long for column 'name' at row 1", null), "uk_doctor_email"));
+	}
+}